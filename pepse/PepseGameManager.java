@@ -8,16 +8,33 @@ import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
+import pepse.util.ParallelTasks;
+import pepse.util.StageTimer;
 import pepse.world.*;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.ChunkData;
+import pepse.world.chunks.ChunkGenerator;
+import pepse.world.chunks.ChunkManager;
+import pepse.world.chunks.StreamingScheduler;
+import pepse.world.chunks.WorldDeltaStore;
 import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
 import pepse.world.trees.Flora;
+import pepse.world.trees.RegrowthScheduler;
 import pepse.world.trees.Tree;
+import pepse.world.trees.TreeLayout;
+import pepse.world.trees.TreeLifecycleManager;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 /**
  * Manages the game, including initialization and updates of game objects such as terrain,
@@ -26,15 +43,30 @@ import java.util.List;
 public class PepseGameManager extends GameManager {
 
     /**
-     * The current X-coordinate location of the avatar.
+     * The seed of the world, read back from the world delta file so its changes apply, or new.
      */
-    private int currentLocationX;
+    private int worldSeed;
 
     /**
      * The terrain manager responsible for generating and managing terrain blocks.
      */
     private Terrain terrain;
 
+    /**
+     * The tree lifecycle manager responsible for loading and unloading trees.
+     */
+    private TreeLifecycleManager treeLifecycleManager;
+
+    /**
+     * The chunk manager responsible for streaming the world around the avatar.
+     */
+    private ChunkManager chunkManager;
+
+    /**
+     * The scheduler spreading the addition and removal of streamed objects over frames.
+     */
+    private StreamingScheduler streamingScheduler;
+
     /**
      * The dimensions of the game window.
      */
@@ -46,14 +78,35 @@ public class PepseGameManager extends GameManager {
     private Avatar avatar;
 
     /**
-     * The cloud manager responsible for generating clouds and rain.
+     * The weather manager responsible for spawning clouds and rain.
+     */
+    private WeatherManager weatherManager;
+
+    /**
+     * The asset cache for loading textures and sprites once, and sharing them.
+     */
+    private AssetCache assetCache;
+
+    /**
+     * The spatial index of the objects the avatar interacts with by touching them (the fruits).
+     */
+    private final SpatialHashGrid<Interactable> interactables =
+            new SpatialHashGrid<>(Constants.INTERACTABLES_CELL_SIZE);
+
+    /**
+     * The scheduler regrowing the eaten fruits on the day clock.
+     */
+    private RegrowthScheduler regrowthScheduler;
+
+    /**
+     * The time left until the world deltas are flushed to the disk, in seconds.
      */
-    private Cloud cloud;
+    private float timeToDeltaFlush = Constants.WORLD_DELTA_FLUSH_INTERVAL;
 
     /**
-     * The image reader for loading textures and sprites.
+     * Makes an interactable found around the avatar interact with it.
      */
-    private ImageReader imageReader;
+    private final Consumer<Interactable> avatarInteraction = item -> item.interact(avatar);
 
     /**
      * Functional interface for a function that takes a float and returns a float.
@@ -90,10 +143,23 @@ public class PepseGameManager extends GameManager {
                                WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         windowDimensions = windowController.getWindowDimensions();
-        this.imageReader = imageReader;
+        this.assetCache = new AssetCache();
+
+        // Decode all the used images up front, at their display size, and pack them into one atlas,
+        // so creating objects never reads from the disk
+        StageTimer startupTimer = new StageTimer();
+        ExecutorService preloadPool = ParallelTasks.newDaemonPool(Constants.PRELOAD_THREAD_NAME,
+                Runtime.getRuntime().availableProcessors());
+        startupTimer.run(Constants.ASSETS_STAGE,
+                () -> assetCache.preload(usedImages(), preloadPool));
+        startupTimer.run(Constants.ATLAS_STAGE, assetCache::packAtlas);
 
         gameObjects().layers().shouldLayersCollide(
-                Constants.FRUITS_LAYER, Constants.AVATAR_LAYER, true);
+                Constants.GROUND_LAYER, Constants.AVATAR_LAYER, true);
+        gameObjects().layers().shouldLayersCollide(
+                Constants.SUBSURFACE_LAYER, Constants.AVATAR_LAYER, false);
+        gameObjects().layers().shouldLayersCollide(
+                Constants.FRUITS_LAYER, Constants.AVATAR_LAYER, false);
         gameObjects().layers().shouldLayersCollide(
                 Constants.TREES_TRUNKS_LAYER, Constants.AVATAR_LAYER, true);
 
@@ -101,20 +167,36 @@ public class PepseGameManager extends GameManager {
         GameObject sky = Sky.create(windowDimensions);
         this.gameObjects().addGameObject(sky, Constants.SKY_LAYER);
 
-        // Add terrain
-        this.terrain = new Terrain(windowDimensions, Constants.RANDOM_SEED);
-        List<Block> blockList = terrain.createInRange(0, (int) windowDimensions.x());
-        for (Block block : blockList) {
-            block.setTag(Constants.GROUND);
-            this.gameObjects().addGameObject(block, Constants.GROUND_LAYER);
-        }
+        // Continue the world of the delta file if there is one, so its changes apply to it
+        this.worldSeed = WorldDeltaStore.readSeed(Path.of(Constants.WORLD_DELTA_FILE),
+                new Random().nextInt());
+
+        // Create terrain and flora generators, the world itself is streamed in chunks
+        this.terrain = new Terrain(windowDimensions, worldSeed);
+        Flora flora = new Flora(terrain::heightsInRange, terrain::biomesInRange, assetCache,
+                worldSeed);
+        ChunkGenerator chunkGenerator = new ChunkGenerator(terrain, flora);
+        startupTimer.run(Constants.WARM_UP_STAGE, this::warmUp);
+        this.streamingScheduler = new StreamingScheduler(Constants.STREAMED_OBJECTS_PER_FRAME,
+                this::addStreamedObject,
+                this::removeStreamedObject);
+        // Keep the eaten fruits of the world, also in a file, flushed on exit and periodically in
+        // the background. The world seed was read from the same file, so they apply to this world
+        this.regrowthScheduler = new RegrowthScheduler(Constants.DAY_LONG,
+                new WorldDeltaStore(worldSeed, Path.of(Constants.WORLD_DELTA_FILE)));
+        Runtime.getRuntime().addShutdownHook(new Thread(regrowthScheduler::flush));
+        this.treeLifecycleManager = new TreeLifecycleManager(assetCache,
+                streamingScheduler::add,
+                streamingScheduler::remove,
+                regrowthScheduler);
 
         // Add light and darkness cycle
         GameObject night = Night.create(windowDimensions, Constants.DAY_LONG);
         this.gameObjects().addGameObject(night, Constants.NIGHT_LAYER);
 
         // Add sun and sun halo
-        GameObject sun = Sun.create(imageReader, windowDimensions, Constants.DAY_LONG);
+        GameObject sun = Sun.create(assetCache, windowDimensions, Constants.DAY_LONG,
+                terrain::groundHeightAt);
         this.gameObjects().addGameObject(sun, Constants.SUN_LAYER);
 
         GameObject sunHalo = SunHalo.create(sun);
@@ -122,8 +204,7 @@ public class PepseGameManager extends GameManager {
 
         // Add avatar
         Vector2 startLocationAvatar = new Vector2(windowDimensions.x() * Constants.HALF, 0);
-        currentLocationX = (int) startLocationAvatar.x();
-        avatar = new Avatar(startLocationAvatar, inputListener, imageReader);
+        avatar = new Avatar(startLocationAvatar, inputListener, assetCache);
         avatar.setTag(Constants.AVATAR);
         this.gameObjects().addGameObject(avatar, Constants.AVATAR_LAYER);
 
@@ -133,16 +214,25 @@ public class PepseGameManager extends GameManager {
         energyDisplay.setCoordinateSpace(danogl.components.CoordinateSpace.CAMERA_COORDINATES);
         this.gameObjects().addGameObject(energyDisplay, Constants.ENERGY_LAYER);
 
-        // Add trees
-        addFlora(0, (int) windowDimensions.x());
-
-        // Add cloud
-        this.cloud = new Cloud(windowDimensions, Constants.CLOUD_CYCLE, imageReader);
-        List<Block> cloudBlocks = cloud.getCloudBlocks();
-        for (Block block : cloudBlocks) {
-            this.gameObjects().addGameObject(block, Constants.CLOUD_LAYER);
-            block.setCoordinateSpace(danogl.components.CoordinateSpace.CAMERA_COORDINATES);
-        }
+        // Add the chunks around the avatar (terrain and trees), all of them before the first frame
+        this.chunkManager = new ChunkManager(windowDimensions.x(),
+                chunkGenerator,
+                this::loadChunk,
+                this::unloadChunk,
+                streamingScheduler::add,
+                streamingScheduler::remove);
+        streamingScheduler.setFocus(startLocationAvatar.x());
+        startupTimer.run(Constants.CHUNKS_STAGE, () -> {
+            chunkManager.preload(startLocationAvatar.x(), preloadPool);
+            streamingScheduler.flush();
+        });
+        preloadPool.shutdown();
+
+        // Add clouds
+        this.weatherManager = new WeatherManager(windowDimensions, worldSeed,
+                this::sampleScreenGround,
+                this.gameObjects()::addGameObject,
+                this.gameObjects()::removeGameObject);
 
         // Add callback for rain
         avatar.setOnJumpCallback(this::createRainJump);
@@ -160,132 +250,190 @@ public class PepseGameManager extends GameManager {
                 windowController.getWindowDimensions().mult(0.5f).subtract(initialAvatarLocation),
                 windowController.getWindowDimensions(),
                 windowController.getWindowDimensions()));
+
+        // Startup diagnostics, printed with the stage times
+        startupTimer.printTotal();
+        System.out.println(assetCache.report());
     }
 
     /**
-     * Adds flora (trees and related elements) to the specified range in the game world.
+     * Returns every image the game shows, with the largest size it is drawn at, so the images
+     * are preloaded no larger than they appear on the screen.
      *
-     * @param startRange The start of the range.
-     * @param endRange The end of the range.
+     * @return The largest display size of every image, by image path.
      */
-    private void addFlora(int startRange, int endRange) {
-        Flora flora = new Flora(terrain::groundHeightAt, imageReader);
-
-        List<Tree> trees = flora.createInRange(startRange, endRange);
-
-        for (Tree tree : trees) {
-            // Add trunk
-            this.gameObjects().addGameObject(tree.getTrunk(), Constants.TREES_TRUNKS_LAYER);
-
-            // Add leaves
-            for (GameObject leaf : tree.getLeaves()) {
-                this.gameObjects().addGameObject(leaf, Constants.TREE_LEAVES_LAYER);
-            }
+    private static Map<String, Vector2> usedImages() {
+        Map<String, Vector2> displaySizes = new HashMap<>();
+        Vector2 avatarSize = Vector2.ONES.mult(Constants.AVATAR_SIZE);
+        for (int i = 0; i < Constants.NUM_IDLE_FRAMES; i++) {
+            displaySizes.put(String.format(Constants.AVATAR_IDLE_PATH_FORMAT, i), avatarSize);
+        }
+        for (int i = 0; i < Constants.NUM_RUN_FRAMES; i++) {
+            displaySizes.put(String.format(Constants.AVATAR_RUN_PATH_FORMAT, i), avatarSize);
+        }
+        for (int i = 0; i < Constants.NUM_JUMP_FRAMES; i++) {
+            displaySizes.put(String.format(Constants.AVATAR_JUMP_PATH_FORMAT, i), avatarSize);
+        }
+        displaySizes.put(Constants.TRUNK_IMAGE_PATH,
+                new Vector2(Constants.TREE_TRUNK_WIDTH, Constants.TREE_TRUNK_HEIGHT_MAX));
+        displaySizes.put(Constants.FRUIT_IMAGE_PATH, Vector2.ONES.mult(Constants.FRUIT_SIZE));
+        displaySizes.put(Constants.SUN_IMAGE_PATH, Vector2.ONES.mult(Constants.SUN_SIZE));
+        return displaySizes;
+    }
 
-            // Add fruits
-            for (GameObject fruit : tree.getFruits()) {
-                this.gameObjects().addGameObject(fruit, Constants.FRUITS_LAYER);
+    /**
+     * Warms up the JIT compiler on the world generation paths, by generating and building chunks
+     * away from the world origin and throwing them away. The game objects are never added.
+     * The chunks come from a throwaway terrain with the same seed, so the height-map and biome
+     * caches of the game's terrain, and their hit and miss counts, are left untouched.
+     */
+    private void warmUp() {
+        Terrain warmUpTerrain = new Terrain(windowDimensions, worldSeed);
+        Flora warmUpFlora = new Flora(warmUpTerrain::heightsInRange, warmUpTerrain::biomesInRange,
+                assetCache, worldSeed);
+        // Only generate is called, so the generator never starts its background thread
+        ChunkGenerator warmUpGenerator = new ChunkGenerator(warmUpTerrain, warmUpFlora);
+        for (int i = 0; i < Constants.WARM_UP_CHUNKS; i++) {
+            ChunkData chunkData = warmUpGenerator.generate(Constants.WARM_UP_FIRST_CHUNK + i);
+            warmUpTerrain.createFromHeights(chunkData.getMinX(), chunkData.getGroundHeights(),
+                    chunkData.getBiomes());
+            for (TreeLayout layout : chunkData.getTreeLayouts()) {
+                new Tree(assetCache, layout);
             }
         }
     }
 
     /**
-     * Creates rain when the avatar jumps.
+     * Creates the terrain and flora of a single chunk from its precomputed data.
+     *
+     * @param chunkData The precomputed data of the chunk.
+     * @return The chunk, owning its terrain game objects.
      */
-    public void createRainJump() {
-        List<GameObject> waterDrops = cloud.createRain(this.gameObjects()::removeGameObject);
-        for (GameObject waterDrop : waterDrops) {
-            this.gameObjects().addGameObject(waterDrop, Constants.CLOUD_LAYER);
-            waterDrop.setCoordinateSpace(danogl.components.CoordinateSpace.CAMERA_COORDINATES);
+    private Chunk loadChunk(ChunkData chunkData) {
+        // A chunk loaded again soon after it was unloaded may still have objects waiting for
+        // removal, remove them first. Trees never reach past the neighboring chunks.
+        streamingScheduler.completeRemovalsInRange(chunkData.getMinX() - ChunkManager.CHUNK_WIDTH,
+                chunkData.getMinX() + 2 * ChunkManager.CHUNK_WIDTH);
+        Chunk chunk = new Chunk(chunkData.getIndex());
+
+        // Add terrain, only the surface blocks are in the colliding ground layer
+        for (GameObject terrainObject :
+                terrain.createFromHeights(chunkData.getMinX(), chunkData.getGroundHeights(),
+                        chunkData.getBiomes())) {
+            if (terrainObject.getTag().equals(Constants.GROUND)) {
+                chunk.addObject(terrainObject, Constants.GROUND_LAYER);
+            } else {
+                chunk.addObject(terrainObject, Constants.SUBSURFACE_LAYER);
+            }
         }
+
+        // Add trees, they are owned by the tree lifecycle manager
+        treeLifecycleManager.load(chunkData.getTreeLayouts());
+        return chunk;
     }
 
     /**
-     * Updates the game state in each frame.
+     * Adds a streamed game object to the game, and to the interactables grid if the avatar
+     * interacts with it, so it can only be interacted with once it is in the game.
      *
-     * @param deltaTime Time elapsed since the last frame.
+     * @param gameObject The streamed game object.
+     * @param layer The layer of the game object.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        updateCreateWorld();
+    private void addStreamedObject(GameObject gameObject, int layer) {
+        this.gameObjects().addGameObject(gameObject, layer);
+        if (gameObject instanceof Interactable interactable) {
+            interactables.insert(interactable);
+        }
     }
 
     /**
-     * Updates the creation of new game world elements based on the avatar's current location.
+     * Removes a streamed game object from the game, and from the interactables grid if the avatar
+     * interacts with it, so it can be interacted with as long as it is in the game.
+     *
+     * @param gameObject The streamed game object.
+     * @param layer The layer of the game object.
      */
-    private void updateCreateWorld() {
-        int currentAvatarLocX = (int) avatar.getTopLeftCorner().x();
-
-        int visibleStart = (int) (currentAvatarLocX - windowDimensions.x() * Constants.HALF);
-        int visibleEnd = (int) (currentAvatarLocX + windowDimensions.x() * Constants.HALF);
-
-        if (currentAvatarLocX > currentLocationX) {
-            addVisibleRange(
-                    currentLocationX + (int) (windowDimensions.x() * Constants.HALF),
-                    visibleEnd);
-        } else {
-            addVisibleRange(
-                    visibleStart,
-                    currentLocationX - (int) (windowDimensions.x() * Constants.HALF));
+    private void removeStreamedObject(GameObject gameObject, int layer) {
+        this.gameObjects().removeGameObject(gameObject, layer);
+        if (gameObject instanceof Interactable interactable) {
+            interactables.remove(interactable);
         }
-        removeInvisibleRange(visibleStart, visibleEnd);
+    }
 
-        currentLocationX = currentAvatarLocX;
+    /**
+     * Unloads the content of a chunk that is not owned by the chunk itself (the trees).
+     *
+     * @param index The index of the unloaded chunk.
+     */
+    private void unloadChunk(int index) {
+        int minX = ChunkManager.chunkStartX(index);
+        treeLifecycleManager.unloadRange(minX, minX + ChunkManager.CHUNK_WIDTH - 1);
     }
 
     /**
-     * Adds visible game elements to the specified range based on the avatar's location.
+     * Fills the heights of the top of the ground blocks under evenly spaced points of the screen,
+     * so the rain, which is drawn in camera coordinates, splashes on the terrain. The heights of
+     * all the columns under the screen are taken from the terrain in a single batch.
      *
-     * @param visibleStart The start of the visible range.
-     * @param visibleEnd The end of the visible range.
+     * @param heights Receives the y-coordinate of the ground on the screen under the point at
+     *                x = i * spacing on the screen, for every index i.
+     * @param spacing The distance between the points, in pixels.
      */
-    private void addVisibleRange(int visibleStart, int visibleEnd) {
-        List<Block> blockList = terrain.createInRange(visibleStart, visibleEnd);
-        for (Block block : blockList) {
-            block.setTag(Constants.GROUND);
-            this.gameObjects().addGameObject(block, Constants.GROUND_LAYER);
+    private void sampleScreenGround(float[] heights, float spacing) {
+        Vector2 cameraTopLeft = camera().getTopLeftCorner();
+        int firstColumnX = (int) Math.floor(cameraTopLeft.x() / Block.SIZE) * Block.SIZE;
+        float[] columnHeights = terrain.heightsInRange(firstColumnX,
+                (int) Math.ceil(cameraTopLeft.x() + (heights.length - 1) * spacing));
+        for (int i = 0; i < heights.length; i++) {
+            int column = (int) ((cameraTopLeft.x() + i * spacing - firstColumnX) / Block.SIZE);
+            float groundHeight = (float) Math.floor(columnHeights[column] / Block.SIZE) * Block.SIZE;
+            heights[i] = groundHeight - cameraTopLeft.y();
         }
-        addFlora(visibleStart, visibleEnd);
     }
 
     /**
-     * Removes game elements that are outside the visible range.
+     * Creates rain when the avatar jumps.
+     */
+    public void createRainJump() {
+        weatherManager.rain();
+    }
+
+    /**
+     * Updates the game state in each frame.
      *
-     * @param visibleStart The start of the visible range.
-     * @param visibleEnd The end of the visible range.
+     * @param deltaTime Time elapsed since the last frame.
      */
-    private void removeInvisibleRange(int visibleStart, int visibleEnd) {
-        List<GameObject> objectsToRemove = new ArrayList<>();
-
-        // Remove blocks
-        for (GameObject gameObject : gameObjects().objectsInLayer(Constants.GROUND_LAYER)) {
-            if (gameObject.getTag().equals(Constants.GROUND)) {
-                float blockX = gameObject.getTopLeftCorner().x();
-                if (blockX < visibleStart - Constants.VISIBLE_WORLD_MARGIN ||
-                        blockX > visibleEnd + Constants.VISIBLE_WORLD_MARGIN) {
-                    objectsToRemove.add(gameObject);
-                }
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        weatherManager.update(deltaTime);
+        regrowthScheduler.update(deltaTime);
+        timeToDeltaFlush -= deltaTime;
+        if (timeToDeltaFlush <= 0) {
+            timeToDeltaFlush += Constants.WORLD_DELTA_FLUSH_INTERVAL;
+            try {
+                regrowthScheduler.flushInBackground();
+            } catch (UncheckedIOException e) {
+                // Keep playing, the next flush tries again
+                System.err.println(String.format(Constants.WORLD_DELTA_FLUSH_FAILED_FORMAT,
+                        e.getMessage()));
             }
         }
+        updateCreateWorld();
 
-        // Remove flora
-        for (GameObject gameObject : gameObjects().objectsInLayer(Constants.TREES_TRUNKS_LAYER)) {
-            if (gameObject instanceof Tree) {
-                Tree tree = (Tree) gameObject;
-                float treeX = tree.getTrunk().getTopLeftCorner().x();
-                if (treeX < visibleStart - Constants.VISIBLE_WORLD_MARGIN ||
-                        treeX > visibleEnd + Constants.VISIBLE_WORLD_MARGIN) {
-                    objectsToRemove.add(tree.getTrunk());
-                    objectsToRemove.addAll(tree.getLeaves());
-                    objectsToRemove.addAll(tree.getFruits());
-                }
-            }
-        }
+        // Pick up the fruits the avatar touches, the engine does not collide them
+        interactables.query(avatar.getTopLeftCorner(), avatar.getDimensions(), avatarInteraction);
+    }
 
-        for (GameObject gameObject : objectsToRemove) {
-            this.gameObjects().removeGameObject(gameObject);
-        }
+    /**
+     * Streams the world chunks around the avatar's current location, and applies this frame's
+     * share of the streamed objects.
+     */
+    private void updateCreateWorld() {
+        float avatarX = avatar.getTopLeftCorner().x();
+        streamingScheduler.setFocus(avatarX);
+        chunkManager.update(avatarX);
+        streamingScheduler.update();
     }
 
     /**
@@ -0,0 +1,275 @@
+package pepse.util;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A central cache of the game's images. Every image is read from disk and decoded once, the first
+ * time it is asked for, and all the game objects showing it share a single ImageRenderable.
+ * Preloaded images are scaled down to the size they are drawn at, so the cache never keeps
+ * pixels that are never shown. Once the images are loaded, they can be packed into a single
+ * sprite atlas, and from then on the cache hands out regions of the atlas instead of separate
+ * images.
+ * The cache keeps counts of its hits and misses and of the memory taken by the decoded images.
+ * Safe to use from any thread.
+ */
+public class AssetCache {
+    /** The size of a decoded ARGB pixel, in bytes. */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /** The shared renderables, keyed by the image path and the background flag. */
+    private final Map<String, Renderable> renderables = new ConcurrentHashMap<>();
+
+    /** The decoded images that were not packed into an atlas yet, keyed like the renderables. */
+    private final Map<String, BufferedImage> unpackedImages = new ConcurrentHashMap<>();
+
+    /** The sprite atlas of the packed images, or null before the images are packed. */
+    private volatile SpriteAtlas atlas;
+
+    /** The number of lookups that found the image in the cache. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** The number of lookups that had to read and decode the image. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** The memory taken by the decoded images, in bytes. */
+    private final AtomicLong memoryBytes = new AtomicLong();
+
+    /**
+     * Returns the shared renderable of an image, reading and decoding it on the first call.
+     *
+     * @param imagePath The path of the image, relative to the working directory or the classpath.
+     * @param useTopLeftPixelAsBackground Whether the color of the top-left pixel should be
+     *                                    transparent everywhere in the image.
+     * @return The shared renderable of the image (a region of the atlas once it is packed).
+     */
+    public Renderable readImage(String imagePath, boolean useTopLeftPixelAsBackground) {
+        return readImage(imagePath, useTopLeftPixelAsBackground, null);
+    }
+
+    /**
+     * Returns the shared renderable of an image, reading, decoding and scaling it on the first call.
+     *
+     * @param imagePath The path of the image, relative to the working directory or the classpath.
+     * @param useTopLeftPixelAsBackground Whether the color of the top-left pixel should be
+     *                                    transparent everywhere in the image.
+     * @param displaySize The largest size the image is drawn at, it is scaled down to it on the
+     *                    first call. Null to keep the image at its full size.
+     * @return The shared renderable of the image (a region of the atlas once it is packed).
+     */
+    private Renderable readImage(String imagePath, boolean useTopLeftPixelAsBackground,
+                                 Vector2 displaySize) {
+        String key = useTopLeftPixelAsBackground + ":" + imagePath;
+        Renderable renderable = renderables.get(key);
+        if (renderable != null) {
+            hits.incrementAndGet();
+            return renderable;
+        }
+        return renderables.computeIfAbsent(key, missingKey -> {
+            misses.incrementAndGet();
+            BufferedImage image = decode(imagePath, useTopLeftPixelAsBackground);
+            if (displaySize != null) {
+                image = scaleDown(image, (int) Math.ceil(displaySize.x()),
+                        (int) Math.ceil(displaySize.y()));
+            }
+            memoryBytes.addAndGet(imageBytes(image));
+            unpackedImages.put(missingKey, image);
+            return new ImageRenderable(image);
+        });
+    }
+
+    /**
+     * Packs all the images decoded so far into a sprite atlas. From then on, those images are
+     * handed out as regions of the atlas, and the separate decoded images are dropped.
+     * Images that do not fit in the largest atlas keep being handed out as separate images.
+     * Should be called before the images are handed out to game objects, since objects that
+     * already hold an image keep it.
+     *
+     * @return The new atlas, or the current one if there are no new images to pack.
+     */
+    public synchronized SpriteAtlas packAtlas() {
+        if (unpackedImages.isEmpty()) {
+            return atlas;
+        }
+        Map<String, BufferedImage> images = Map.copyOf(unpackedImages);
+        SpriteAtlas newAtlas = SpriteAtlas.pack(images);
+        renderables.putAll(newAtlas.getRegions());
+
+        long packedBytes = 0;
+        for (String key : newAtlas.getRegions().keySet()) {
+            packedBytes += imageBytes(images.get(key));
+        }
+        memoryBytes.addAndGet(imageBytes(newAtlas.getImage()) - packedBytes);
+        unpackedImages.keySet().removeAll(images.keySet());
+        atlas = newAtlas;
+        return newAtlas;
+    }
+
+    /**
+     * Returns the sprite atlas of the packed images.
+     *
+     * @return The atlas, or null if the images were not packed yet.
+     */
+    public SpriteAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Reads, decodes and scales the given images in parallel, and waits for all of them.
+     * The images are cached with the top-left pixel as background, like the game reads them,
+     * and scaled down to the largest size they are drawn at.
+     *
+     * @param displaySizes The largest size every image is drawn at, by image path.
+     * @param pool The worker pool to decode the images on.
+     * @return The number of preloaded images.
+     */
+    public int preload(Map<String, Vector2> displaySizes, ExecutorService pool) {
+        List<Callable<Renderable>> tasks = new ArrayList<>();
+        for (Map.Entry<String, Vector2> entry : displaySizes.entrySet()) {
+            tasks.add(() -> readImage(entry.getKey(), true, entry.getValue()));
+        }
+        return ParallelTasks.invokeAll(pool, tasks).size();
+    }
+
+    /**
+     * Returns the number of lookups that found the image in the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that had to read and decode the image.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the memory taken by the decoded images.
+     *
+     * @return The memory of the cached images, in bytes.
+     */
+    public long getMemoryBytes() {
+        return memoryBytes.get();
+    }
+
+    /**
+     * Returns a one-line report of the hits, misses and memory of the cache.
+     *
+     * @return The report, formatted with ASSET_CACHE_REPORT_FORMAT.
+     */
+    public String report() {
+        return String.format(Constants.ASSET_CACHE_REPORT_FORMAT,
+                getHits(), getMisses(), getMemoryBytes() / Constants.BYTES_IN_KILOBYTE);
+    }
+
+    /**
+     * Returns the memory taken by a decoded image.
+     *
+     * @param image The image.
+     * @return The size of the image pixels, in bytes.
+     */
+    private static long imageBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Scales an image down to the given size, halving it with bilinear filtering until it is
+     * close, so every pixel of the result blends all the source pixels under it. An image that
+     * is already no larger than the given size is returned as is.
+     *
+     * @param image The image to scale.
+     * @param maxWidth The width of the scaled image, if the image is wider.
+     * @param maxHeight The height of the scaled image, if the image is taller.
+     * @return The scaled image.
+     */
+    private static BufferedImage scaleDown(BufferedImage image, int maxWidth, int maxHeight) {
+        int targetWidth = Math.max(1, Math.min(image.getWidth(), maxWidth));
+        int targetHeight = Math.max(1, Math.min(image.getHeight(), maxHeight));
+        BufferedImage scaled = image;
+        while (scaled.getWidth() > targetWidth || scaled.getHeight() > targetHeight) {
+            int width = Math.max(targetWidth, scaled.getWidth() / 2);
+            int height = Math.max(targetHeight, scaled.getHeight() / 2);
+            // Premultiplied, so the transparent background never bleeds into the edges
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(scaled, 0, 0, width, height, null);
+            g.dispose();
+            scaled = step;
+        }
+        return scaled;
+    }
+
+    /**
+     * Reads and decodes an image into an ARGB image.
+     *
+     * @param imagePath The path of the image, relative to the working directory or the classpath.
+     * @param useTopLeftPixelAsBackground Whether the color of the top-left pixel should be
+     *                                    transparent everywhere in the image.
+     * @return The decoded image.
+     * @throws UncheckedIOException If the image cannot be found or decoded.
+     */
+    private static BufferedImage decode(String imagePath, boolean useTopLeftPixelAsBackground) {
+        BufferedImage source;
+        try {
+            File file = new File(imagePath);
+            if (file.isFile()) {
+                source = ImageIO.read(file);
+            } else {
+                URL resource = AssetCache.class.getClassLoader().getResource(imagePath);
+                if (resource == null) {
+                    throw new FileNotFoundException(imagePath);
+                }
+                source = ImageIO.read(resource);
+            }
+            if (source == null) {
+                throw new IOException("Unsupported image format: " + imagePath);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+
+        if (useTopLeftPixelAsBackground) {
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            int background = pixels[0];
+            for (int i = 0; i < pixels.length; i++) {
+                if (pixels[i] == background) {
+                    pixels[i] = 0; // Fully transparent
+                }
+            }
+            image.setRGB(0, 0, width, height, pixels, 0, width);
+        }
+        return image;
+    }
+}
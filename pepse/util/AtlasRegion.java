@@ -0,0 +1,81 @@
+package pepse.util;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * A renderable that draws a single region of a sprite atlas, stretched to the given dimensions.
+ * Supports rotation, horizontal and vertical flips and opaqueness, like an image renderable.
+ */
+public class AtlasRegion implements Renderable {
+    /** The atlas image the region is taken from. */
+    private final BufferedImage atlasImage;
+
+    /** The bounds of the region in the atlas image. */
+    private final Rectangle bounds;
+
+    /**
+     * Constructs an AtlasRegion.
+     *
+     * @param atlasImage The atlas image the region is taken from.
+     * @param bounds The bounds of the region in the atlas image.
+     */
+    public AtlasRegion(BufferedImage atlasImage, Rectangle bounds) {
+        this.atlasImage = atlasImage;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns the bounds of the region in the atlas image.
+     *
+     * @return The bounds of the region.
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * Draws the region of the atlas, stretched over the given dimensions.
+     *
+     * @param g The graphics context to draw on.
+     * @param topLeftCorner The top-left corner of the drawn region on the screen.
+     * @param dimensions The dimensions of the drawn region on the screen.
+     * @param degreesCounterClockwise The rotation of the region around its center.
+     * @param isFlippedHorizontally Whether the region is mirrored left to right.
+     * @param isFlippedVertically Whether the region is mirrored top to bottom.
+     * @param opaqueness The opaqueness of the region, between 0 and 1.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite originalComposite = g.getComposite();
+        AffineTransform originalTransform = g.getTransform();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+        if (degreesCounterClockwise != 0) {
+            g.rotate(-Math.toRadians(degreesCounterClockwise),
+                    topLeftCorner.x() + dimensions.x() * Constants.HALF,
+                    topLeftCorner.y() + dimensions.y() * Constants.HALF);
+        }
+
+        int left = Math.round(topLeftCorner.x());
+        int top = Math.round(topLeftCorner.y());
+        int right = Math.round(topLeftCorner.x() + dimensions.x());
+        int bottom = Math.round(topLeftCorner.y() + dimensions.y());
+        // Swapping the destination corners mirrors the drawn region
+        g.drawImage(atlasImage,
+                isFlippedHorizontally ? right : left, isFlippedVertically ? bottom : top,
+                isFlippedHorizontally ? left : right, isFlippedVertically ? top : bottom,
+                bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height,
+                null);
+
+        g.setTransform(originalTransform);
+        g.setComposite(originalComposite);
+    }
+}
@@ -64,6 +64,36 @@ public final class ColorSupplier {
                 randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
     }
 
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta, that is fully
+     * determined by the given hash. Each channel uses a different byte of the hash.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param hash The hash that determines the color.
+     * @return A color similar to baseColor.
+     */
+    public static Color hashedColor(Color baseColor, int colorDelta, int hash) {
+        return new Color(
+                hashedChannel(baseColor.getRed(), colorDelta, hash),
+                hashedChannel(baseColor.getGreen(), colorDelta, hash >>> 8),
+                hashedChannel(baseColor.getBlue(), colorDelta, hash >>> 16));
+    }
+
+    /**
+     * This method picks a value for a color channel within [pivot-delta, pivot+delta] using the low
+     * byte of the given bits.
+     *
+     * @param pivot The channel value to approximate.
+     * @param delta The maximal difference from the pivot.
+     * @param bits The bits that determine the value.
+     * @return A value in the range [pivot-delta, pivot+delta], clipped to [0,255].
+     */
+    private static int hashedChannel(int pivot, int delta, int bits) {
+        int channel = pivot - delta + (bits & 0xFF) % (2 * delta + 1);
+        return Math.min(255, Math.max(channel, 0));
+    }
+
     /**
      * This method generates a random value for a color channel within the given range [min, max].
      *
@@ -1,10 +1,9 @@
 package pepse.util;
 
 import danogl.collisions.Layer;
+import danogl.util.Vector2;
 
 import java.awt.*;
-import java.util.List;
-import java.util.Random;
 
 /**
  * A utility class to store commonly used constants throughout the project.
@@ -32,6 +31,7 @@ public final class Constants {
     public static final String
             AVATAR     = "avatar",
             GROUND     = "ground",
+            SUBSURFACE = "subsurface",
             SKY        = "sky",
             CLOUD      = "cloud",
             SUN        = "sun",
@@ -43,8 +43,7 @@ public final class Constants {
             NIGHT      = "night",
             RUN        = "run",
             JUMP       = "jump",
-            IDLE       = "idle",
-            WATER_DROP = "water drop";
+            IDLE       = "idle";
 
     // Image paths:
     public static final String
@@ -53,23 +52,39 @@ public final class Constants {
             AVATAR_JUMP_PATH_FORMAT = "assets/jump_%d.png",
             TRUNK_IMAGE_PATH = "assets/trunk_new.png",
             FRUIT_IMAGE_PATH = "assets/newapple.png",
-            WATER_DROP_IMAGE_PATH = "assets/waterDrop.png",
             SKY_IMAGE_PATH = "assets/sky.jpg",
-            SUN_IMAGE_PATH = "assets/last_sun.png";
+            SUN_IMAGE_PATH = "assets/last_sun.png",
+            /** The file the changes to the generated world (the eaten fruits) are kept in: **/
+            WORLD_DELTA_FILE = "pepse_world.delta";
 
     // Prints:
     public static final String
-            ENERGY_TEXT_FORMAT = "Energy: %.2f";
+            ENERGY_TEXT_FORMAT = "Energy: %.2f",
+            ASSET_CACHE_REPORT_FORMAT = "Asset cache: %d hits, %d misses, %d KB",
+            STAGE_TIME_FORMAT = "Startup stage %s: %.1f ms",
+            STAGE_TOTAL_TIME_FORMAT = "Startup total: %.1f ms",
+            WORLD_DELTA_FLUSH_FAILED_FORMAT = "Could not save the world changes: %s";
+
+    // Startup stages:
+    public static final String
+            PRELOAD_THREAD_NAME = "preloader",
+            ASSETS_STAGE = "assets",
+            ATLAS_STAGE = "atlas",
+            WARM_UP_STAGE = "warm-up",
+            CHUNKS_STAGE = "chunks";
 
     /** <h2> Numeric constants </h2>*/
 
     /** General constant: **/
     public static final int
-            RANDOM_SEED = new Random().nextInt(),
+            BYTES_IN_KILOBYTE = 1024,
             /** Constants for color manipulation for the Cloud and Terrain: **/
             COLOR_VARIATION = 10,
             COLOR_MIN = 0,
-            COLOR_MAX = 255;
+            COLOR_MAX = 255,
+            /** Number of precomputed color variants per base color, and of terrain column looks: **/
+            PALETTE_VARIANTS = 16,
+            COLUMN_VARIANTS = 16;
     public static final float
             HALF = 0.5f;
 
@@ -84,18 +99,45 @@ public final class Constants {
 
     /** Cloud constant: **/
     public static final int
-            WATER_DROP_SIZE = 20,
             CLOUD_CYCLE = 30,
-            DROP_VEL_CYCLE = 8,
-            DROP_OPACITY_CYCLE = 4,
-            WATER_DROP_FALL_DISTANCE = 1000,
-            MAX_NUM_DROPS = 3,
+            /** Constants for the weather: **/
+            MAX_ACTIVE_CLOUDS = 5,
+            INITIAL_CLOUDS = 3,
+            CLOUD_SHAPE_VARIANTS = 8,
+            CLOUD_ROWS = 7,
+            CLOUD_COLUMNS = 11,
+            CLOUD_SHAPE_NOISE_SCALE = 150,
             /** Constants for rain manipulation: **/
-            DROP_LOC_X_VARIATION = 100,
-            DROP_LOC_Y_VARIATION = 50;
+            RAIN_PARTICLE_CAPACITY = 6000,
+            SPLASH_PARTICLE_CAPACITY = 4000,
+            RAIN_BURST_DROPS = 120,
+            SPLASH_PARTICLES = 2,
+            RAIN_CLOUD_MARGIN = 30,
+            PARTICLE_GROUND_SAMPLE_SPACING = 5,
+            PARTICLE_ALPHA_LEVELS = 16;
     public static final float
-            CLOUD_LOCATION_X_RATIO = 0.1f,
-            WATER_DROP_FINAL_OPACITY = 0F;
+            CLOUD_SPAWN_INTERVAL = 7f,
+            CLOUD_MIN_HEIGHT_RATIO = 0.02f,
+            CLOUD_MAX_HEIGHT_RATIO = 0.2f,
+            CLOUD_SPEED_VARIATION = 0.3f,
+            /** Shape of a cloud: dome height, noise bumps and lift of the bottom edges **/
+            CLOUD_DOME_RATIO = 0.55f,
+            CLOUD_SHAPE_BUMPINESS = 1.5f,
+            CLOUD_BOTTOM_LIFT_RATIO = 0.3f,
+            /** Rain and splash particles: speeds in pixels per second, times in seconds **/
+            STORM_DURATION = 6f,
+            RAIN_DROPS_PER_SECOND = 500f,
+            RAIN_SPEED = 700f,
+            RAIN_SPEED_VARIATION = 0.15f,
+            RAIN_LIFETIME = 4f,
+            SPLASH_SPEED_X = 90f,
+            SPLASH_SPEED_Y = 160f,
+            SPLASH_GRAVITY = 900f,
+            SPLASH_FADE_RATE = 2.5f,
+            SPLASH_LIFETIME = 0.4f;
+    public static final Vector2
+            RAIN_PARTICLE_SIZE = new Vector2(2, 12),
+            SPLASH_PARTICLE_SIZE = new Vector2(3, 3);
 
     /** Energy Constants: **/
     public static final int
@@ -136,7 +178,22 @@ public final class Constants {
 
     /** Endless world constants: **/
     public static final int
-            VISIBLE_WORLD_MARGIN = 50;
+            VISIBLE_WORLD_MARGIN = 50,
+            CHUNK_SIZE_IN_BLOCKS = 10,
+            /** Chunks generated ahead of the loaded ones, in the direction of travel: **/
+            CHUNKS_PREFETCHED = 2,
+            /** Finished chunks taken from the background generator in a single frame: **/
+            CHUNKS_DRAINED_PER_FRAME = 2,
+            /** Streamed game objects added to or removed from the game in a single frame: **/
+            STREAMED_OBJECTS_PER_FRAME = 150,
+            /** The side of a cell of the interactables grid, not smaller than any interactable: **/
+            INTERACTABLES_CELL_SIZE = 120,
+            /** Chunks generated and built at startup (away from the world origin) to warm up the JIT: **/
+            WARM_UP_CHUNKS = 64,
+            WARM_UP_FIRST_CHUNK = 1000;
+    /** Seconds between flushes of the world deltas to the disk: **/
+    public static final float
+            WORLD_DELTA_FLUSH_INTERVAL = 30f;
 
     /** Avatar world constants: **/
     public static final int
@@ -148,10 +205,28 @@ public final class Constants {
     /** Terrain constant: **/
     public static final int
             TERRAIN_DEPTH = 20,
+            /** Height-map cache: block columns per cached page, and the number of cached pages: **/
+            HEIGHT_CACHE_PAGE_COLUMNS = 64,
+            HEIGHT_CACHE_PAGES = 32,
             NOISE_FACTOR = 210;              // the size of the amplitude of the sinus wave
     public static final float
             SCALE_HEIGHT_X0 = 2f / 3;
 
+    /** Biome constants: **/
+    public static final int
+            /** The largest wavelength (in pixels) of the temperature and moisture fields: **/
+            BIOME_NOISE_SCALE = 4000,
+            /** The largest wavelength and the amplitude (in pixels) of the moisture domain warp: **/
+            BIOME_WARP_SCALE = 1000,
+            BIOME_WARP_STRENGTH = 600;
+    public static final float
+            BIOME_ELEVATION_COOLING = 0.3f,
+            DESERT_MIN_TEMPERATURE = 0.15f,
+            DESERT_MAX_MOISTURE = 0f,
+            FOREST_MIN_MOISTURE = 0.2f,
+            FOREST_TREE_THRESHOLD = 0.25f,
+            DESERT_TREE_THRESHOLD = 0.02f;
+
     /** <h2> Layers constants </h2>*/
     public static final int
             SKY_LAYER = Layer.BACKGROUND,
@@ -160,8 +235,9 @@ public final class Constants {
             CLOUD_LAYER = Layer.STATIC_OBJECTS-15,
             TREES_TRUNKS_LAYER = Layer.STATIC_OBJECTS-20,
             TREE_LEAVES_LAYER = Layer.STATIC_OBJECTS-10,
+            SUBSURFACE_LAYER = Layer.STATIC_OBJECTS-5,
             GROUND_LAYER = Layer.STATIC_OBJECTS,
-            FRUITS_LAYER = Layer.STATIC_OBJECTS,
+            FRUITS_LAYER = Layer.STATIC_OBJECTS-8,
             AVATAR_LAYER = Layer.DEFAULT,
             NIGHT_LAYER = Layer.DEFAULT+10,
             ENERGY_LAYER = Layer.UI;
@@ -172,18 +248,9 @@ public final class Constants {
             SUN_HALO_COLOR = new Color(255, 255, 0, 20),
             LEAF_COLOR = new Color(50, 200, 30),
             BASE_GROUND_COLOR = new Color(212, 123, 74),
-            BASE_CLOUD_COLOR = new Color(255, 255, 255);
-
-
-    public static final java.util.List<java.util.List<Integer>> CLOUD_LAYOUT = java.util.List.of(
-            java.util.List.of(0, 0, 1, 1, 0, 0, 0, 0, 0),
-            java.util.List.of(0, 1, 1, 1, 0, 0, 1, 0, 0),
-            java.util.List.of(1, 1, 1, 1, 1, 1, 1, 1, 0),
-            java.util.List.of(1, 1, 1, 1, 1, 1, 1, 1, 1),
-            java.util.List.of(0, 1, 1, 1, 1, 1, 1, 1, 0),
-            java.util.List.of(0, 0, 1, 1, 1, 1, 1, 0, 0),
-            List.of(0, 0, 0, 1, 1, 0, 0, 0, 0)
-    );
-    public static final int NUM_CLOUD_BLOCKS = CLOUD_LAYOUT.size() * CLOUD_LAYOUT.getFirst().size();
+            FOREST_GROUND_COLOR = new Color(120, 94, 54),
+            DESERT_GROUND_COLOR = new Color(230, 196, 120),
+            BASE_CLOUD_COLOR = new Color(255, 255, 255),
+            RAIN_COLOR = new Color(170, 200, 255);
 
 }
@@ -0,0 +1,52 @@
+package pepse.util;
+
+/**
+ * Provides a cheap, stateless integer hash of world grid coordinates.
+ * The hash is a pure function of (seed, x, y), so anything derived from it is the same every
+ * time a region is generated, and it can be used from any thread without shared state.
+ */
+public final class CoordinateHash {
+
+    private CoordinateHash() {
+    }
+
+    /**
+     * Hashes a pair of grid coordinates with a seed.
+     *
+     * @param seed The world seed.
+     * @param x The x grid coordinate.
+     * @param y The y grid coordinate.
+     * @return A well-mixed 32-bit hash of the three values.
+     */
+    public static int hash(int seed, int x, int y) {
+        int h = mix(seed + x * 0x9E3779B1);
+        return mix(h + y * 0x85EBCA6B);
+    }
+
+    /**
+     * Hashes a pair of grid coordinates with a seed into a non-negative value.
+     *
+     * @param seed The world seed.
+     * @param x The x grid coordinate.
+     * @param y The y grid coordinate.
+     * @return A non-negative hash of the three values.
+     */
+    public static int positiveHash(int seed, int x, int y) {
+        return hash(seed, x, y) & Integer.MAX_VALUE;
+    }
+
+    /**
+     * The finalization mix of MurmurHash3, spreads every input bit over the whole result.
+     *
+     * @param h The value to mix.
+     * @return The mixed value.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,176 @@
+package pepse.util;
+
+/**
+ * A hash map from primitive int keys to objects, with open addressing and linear probing.
+ * The keys are never boxed, so looking up a key allocates nothing. Not thread safe.
+ *
+ * @param <V> The type of the values.
+ */
+public class IntObjectMap<V> {
+    /**
+     * Functional interface for visiting the entries of the map.
+     *
+     * @param <V> The type of the values.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        /**
+         * Visits an entry of the map.
+         *
+         * @param key The key of the entry.
+         * @param value The value of the entry.
+         */
+        void visit(int key, V value);
+    }
+
+    /** The initial number of slots, a power of two. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The keys of the slots. */
+    private int[] keys = new int[INITIAL_CAPACITY];
+
+    /** The values of the slots, null for an empty slot. */
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    /** The number of entries. */
+    private int size = 0;
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key The key.
+     * @return The value of the key, or null if the map has no such key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key The key.
+     * @param value The new value of the key, not null.
+     */
+    public void put(int key, V value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        // Grow at a load factor of one half, so probe sequences stay short
+        if ((size + 1) * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        slot = slotOf(key);
+        while (values[slot] != null) {
+            slot = (slot + 1) & (values.length - 1);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * Removes a key and its value.
+     *
+     * @param key The key.
+     */
+    public void remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        values[slot] = null;
+        size--;
+
+        // Move back the following entries of the probe sequence, so no lookup stops at the hole
+        int mask = values.length - 1;
+        int hole = slot;
+        for (int next = (slot + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+            boolean staysAfterHole = hole <= next ?
+                    (hole < home && home <= next) : (hole < home || home <= next);
+            if (!staysAfterHole) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                values[next] = null;
+                hole = next;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of keys in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visits all the entries of the map, in no particular order. The map must not be changed
+     * while it is visited.
+     *
+     * @param visitor Called with every key and its value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryVisitor<V> visitor) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                visitor.visit(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key The key.
+     * @return The slot of the key, or -1 if the map has no such key.
+     */
+    private int find(int key) {
+        int slot = slotOf(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & (values.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first slot of the probe sequence of a key.
+     *
+     * @param key The key.
+     * @return The home slot of the key.
+     */
+    private int slotOf(int key) {
+        return CoordinateHash.hash(0, key, 0) & (values.length - 1);
+    }
+
+    /**
+     * Moves all the entries into a larger table.
+     *
+     * @param capacity The new number of slots, a power of two.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int newSlot = slotOf(oldKeys[slot]);
+                while (values[newSlot] != null) {
+                    newSlot = (newSlot + 1) & (capacity - 1);
+                }
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -8,11 +8,20 @@ public class NoiseGenerator {
 	private int[] p;
 	private int[] permutation;
 	private double startPoint;
+	// Gradient slope of every lattice point along the 1-D slice used by noise1D
+	private double[] slopes1D;
+	// Whether the seed is a whole number, which makes the y and z offsets land on lattice points
+	private boolean isSeedWhole;
+	// The octave points (startPoint, startPoint / 2, ... down to 1), each is both the octave's
+	// wavelength and its amplitude
+	private double[] octavePoints;
 
 	public NoiseGenerator(double seed,int startPoint) {
 		this.seed = seed;
 		this.startPoint =startPoint;
 		init();
+		initOctaves();
+		initSlice1D();
 	}
 
 	private void init() {
@@ -47,13 +56,106 @@ public class NoiseGenerator {
 
 	}
 
+	/**
+	 * Precomputes the octave table. The octaves depend only on startPoint, and the table holds
+	 * exactly the values the halving loop used to produce, so the results are bit-for-bit the same.
+	 */
+	private void initOctaves() {
+		int octaveCount = 0;
+		for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+			octaveCount++;
+		}
+		this.octavePoints = new double[octaveCount];
+		double currentPoint = startPoint;
+		for (int octave = 0; octave < octaveCount; octave++) {
+			octavePoints[octave] = currentPoint;
+			currentPoint /= 2.0;
+		}
+	}
+
+	/**
+	 * Precomputes the 1-D slice of the 3-D noise that noise() samples. noise() evaluates
+	 * smoothNoise(x, 0, 0), where y is offset to the seed and z stays 0. For a whole seed both
+	 * land on lattice points, so their fade curves are 0 and only the two gradients along x
+	 * contribute, and each of them is a fixed slope (-1, 0 or 1) times the relative x.
+	 */
+	private void initSlice1D() {
+		this.isSeedWhole = seed == Math.floor(seed);
+		this.slopes1D = new double[256];
+		int Y = (int) Math.floor(seed) & 255;
+		for (int X = 0; X < 256; X++) {
+			int h = p[p[p[X] + Y]] & 15;
+			double slope = 0;
+			if (h < 8) {
+				slope = (h & 1) == 0 ? 1 : -1;
+			} else if (h == 12 || h == 14) {
+				slope = (h & 2) == 0 ? 1 : -1;
+			}
+			slopes1D[X] = slope;
+		}
+	}
+
+	/**
+	 * 1-D gradient noise, numerically identical to noise(x, factor) when the seed is a whole
+	 * number (as it always is for the terrain), at a fraction of the cost: 2 gradients, 1 lerp
+	 * and 1 fade curve per octave instead of 8 gradients, 7 lerps and 3 fade curves.
+	 * Falls back to noise(x, factor) for a fractional seed.
+	 *
+	 * @param x The x-coordinate to sample.
+	 * @param factor The amplitude of the noise.
+	 * @return The noise value at x.
+	 */
+	public double noise1D(double x, double factor) {
+		if (!isSeedWhole) {
+			return noise(x, factor);
+		}
+		final double[] octavePoints = this.octavePoints;
+		double value = 0.0;
+
+		for (int octave = 0; octave < octavePoints.length; octave++) {
+			double point = octavePoints[octave];
+			value += smoothNoise1D(x / point) * point;
+		}
+
+		return value*factor / startPoint;
+	}
+
+	/**
+	 * Fills values with noise1D samples of a contiguous, evenly spaced range of x-coordinates:
+	 * values[i] = noise1D(startX + i * step, factor), with identical results.
+	 * Each sample runs its whole octave loop in registers; running the octaves as separate passes
+	 * over the array is slower, since the lattice lookups (gathers) keep it from vectorizing.
+	 *
+	 * @param startX The x-coordinate of the first sample.
+	 * @param step The distance between consecutive samples.
+	 * @param factor The amplitude of the noise.
+	 * @param values The array to fill, its length is the number of samples.
+	 */
+	public void noise1D(double startX, double step, double factor, double[] values) {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = noise1D(startX + i * step, factor);
+		}
+	}
+
+	private double smoothNoise1D(double x) {
+		// Offset by the seed value, exactly like smoothNoise does. The two additions are kept
+		// apart: folding them into x + 2 * seed would round differently.
+		x += this.seed;
+		x += this.seed;
+
+		double floorX = Math.floor(x);
+		int X = (int) floorX & 255;
+		x -= floorX;
+
+		return lerp(fade(x), slopes1D[X] * x, slopes1D[(X + 1) & 255] * (x - 1));
+	}
+
 	public double noise(double x,double factor) {
 		double value = 0.0;
-		double currentPoint = startPoint;
 
-		while (currentPoint >= 1) {
-			value += smoothNoise((x / currentPoint),0,0) * currentPoint;
-			currentPoint /= 2.0;
+		for (int octave = 0; octave < octavePoints.length; octave++) {
+			double point = octavePoints[octave];
+			value += smoothNoise((x / point),0,0) * point;
 		}
 
 		return value*factor / startPoint;
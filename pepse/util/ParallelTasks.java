@@ -0,0 +1,66 @@
+package pepse.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility methods for running work on background worker threads.
+ */
+public final class ParallelTasks {
+    /**
+     * Private constructor, this class only has static methods.
+     */
+    private ParallelTasks() {
+    }
+
+    /**
+     * Creates a pool of daemon worker threads, which never keep the game from exiting.
+     *
+     * @param threadName The name of the worker threads (numbered when there is more than one).
+     * @param numThreads The number of worker threads.
+     * @return The new worker pool.
+     */
+    public static ExecutorService newDaemonPool(String threadName, int numThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(numThreads, runnable -> {
+            String name = numThreads == 1 ? threadName : threadName + "-" + threadCount.incrementAndGet();
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the given tasks on a worker pool, and waits for all of them to finish.
+     *
+     * @param pool The worker pool to run the tasks on.
+     * @param tasks The tasks to run.
+     * @param <T> The type of the results of the tasks.
+     * @return The results of the tasks, in the order of the tasks.
+     * @throws RuntimeException The exception thrown by the first failed task, if any.
+     * @throws IllegalStateException If the waiting thread was interrupted.
+     */
+    public static <T> List<T> invokeAll(ExecutorService pool, List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for worker tasks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+}
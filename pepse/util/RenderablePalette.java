@@ -0,0 +1,64 @@
+package pepse.util;
+
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
+import java.awt.*;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded set of precomputed color variants of a base color, and a shared rectangle renderable
+ * for each variant. Objects that need a slightly varied color pick a variant instead of creating
+ * new colors and renderables, so generating new objects allocates neither.
+ */
+public class RenderablePalette {
+    /** The precomputed color variants. */
+    private final Color[] colors;
+
+    /** A shared rectangle renderable for each of the color variants. */
+    private final Renderable[] renderables;
+
+    /**
+     * Constructs a palette, computing all of its variants once.
+     *
+     * @param numVariants The number of color variants in the palette.
+     * @param variantColor Creates the color of the variant with the given index.
+     */
+    public RenderablePalette(int numVariants, IntFunction<Color> variantColor) {
+        this.colors = new Color[numVariants];
+        this.renderables = new Renderable[numVariants];
+        for (int i = 0; i < numVariants; i++) {
+            colors[i] = variantColor.apply(i);
+            renderables[i] = new RectangleRenderable(colors[i]);
+        }
+    }
+
+    /**
+     * Returns the number of variants in the palette.
+     *
+     * @return The number of variants.
+     */
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Returns the color of a variant. Any index is wrapped into the palette.
+     *
+     * @param variant The index of the variant.
+     * @return The color of the variant.
+     */
+    public Color colorAt(int variant) {
+        return colors[Math.floorMod(variant, colors.length)];
+    }
+
+    /**
+     * Returns the shared rectangle renderable of a variant. Any index is wrapped into the palette.
+     *
+     * @param variant The index of the variant.
+     * @return The renderable of the variant.
+     */
+    public Renderable renderableAt(int variant) {
+        return renderables[Math.floorMod(variant, renderables.length)];
+    }
+}
@@ -0,0 +1,168 @@
+package pepse.util;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single texture holding many images, and an index of the region of every image in it.
+ * The images are packed on shelves: sorted from the tallest to the shortest, and placed left to
+ * right in rows. The width of the rows is picked out of a range of candidates, to waste as little
+ * area as possible. The atlas is never larger than MAX_ATLAS_SIZE on either side, the largest
+ * texture the graphics hardware accelerates, and images that do not fit are left out of it.
+ */
+public class SpriteAtlas {
+    /** Empty pixels kept between neighboring regions, so scaled regions never sample a neighbor. */
+    private static final int REGION_PADDING = 1;
+
+    /** The largest width and height of the atlas image, in pixels. */
+    private static final int MAX_ATLAS_SIZE = 4096;
+
+    /** The number of atlas widths tried when packing, between the widest image and a single shelf. */
+    private static final int WIDTH_CANDIDATES = 64;
+
+    /** The atlas image, holding all the packed images. */
+    private final BufferedImage atlasImage;
+
+    /** The region of every packed image, keyed like the images passed to pack. */
+    private final Map<String, AtlasRegion> regions;
+
+    /**
+     * Constructs a SpriteAtlas.
+     *
+     * @param atlasImage The atlas image.
+     * @param regions The region of every packed image.
+     */
+    private SpriteAtlas(BufferedImage atlasImage, Map<String, AtlasRegion> regions) {
+        this.atlasImage = atlasImage;
+        this.regions = regions;
+    }
+
+    /**
+     * Packs the given images into a new atlas. Images that do not fit in an atlas of
+     * MAX_ATLAS_SIZE by MAX_ATLAS_SIZE pixels are left out.
+     *
+     * @param images The images to pack, by key.
+     * @return The atlas, with a region for every packed key.
+     */
+    public static SpriteAtlas pack(Map<String, BufferedImage> images) {
+        List<Map.Entry<String, BufferedImage>> entries = new ArrayList<>();
+        for (Map.Entry<String, BufferedImage> entry : images.entrySet()) {
+            if (entry.getValue().getWidth() + REGION_PADDING <= MAX_ATLAS_SIZE &&
+                    entry.getValue().getHeight() + REGION_PADDING <= MAX_ATLAS_SIZE) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Collections.reverseOrder(
+                Comparator.comparingInt(entry -> entry.getValue().getHeight())));
+
+        // Try a range of atlas widths, from the widest image to a single shelf, keep the smallest
+        int minWidth = 1;
+        int maxWidth = 0;
+        for (Map.Entry<String, BufferedImage> entry : entries) {
+            minWidth = Math.max(minWidth, entry.getValue().getWidth() + REGION_PADDING);
+            maxWidth += entry.getValue().getWidth() + REGION_PADDING;
+        }
+        maxWidth = Math.min(Math.max(minWidth, maxWidth), MAX_ATLAS_SIZE);
+        int atlasWidth = minWidth;
+        int atlasHeight = shelfPack(entries, minWidth, null);
+        int widthStep = Math.max(1, (maxWidth - minWidth) / WIDTH_CANDIDATES);
+        for (int width = minWidth + widthStep; width <= maxWidth; width += widthStep) {
+            int height = shelfPack(entries, width, null);
+            // An atlas within the height limit beats any taller one, then the smaller area wins
+            boolean fits = height <= MAX_ATLAS_SIZE;
+            boolean bestFits = atlasHeight <= MAX_ATLAS_SIZE;
+            if (fits != bestFits ? fits :
+                    (long) width * height < (long) atlasWidth * atlasHeight) {
+                atlasWidth = width;
+                atlasHeight = height;
+            }
+        }
+        Map<String, Rectangle> bounds = new HashMap<>();
+        shelfPack(entries, atlasWidth, bounds);
+
+        // Leave out the images below the height limit
+        entries.removeIf(entry -> bounds.get(entry.getKey()).getMaxY() > MAX_ATLAS_SIZE);
+        atlasHeight = 1;
+        for (Map.Entry<String, BufferedImage> entry : entries) {
+            atlasHeight = Math.max(atlasHeight, (int) bounds.get(entry.getKey()).getMaxY());
+        }
+
+        // Draw the images into the atlas
+        BufferedImage atlasImage = new BufferedImage(atlasWidth, atlasHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlasImage.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        Map<String, AtlasRegion> regions = new HashMap<>();
+        for (Map.Entry<String, BufferedImage> entry : entries) {
+            Rectangle region = bounds.get(entry.getKey());
+            g.drawImage(entry.getValue(), region.x, region.y, null);
+            regions.put(entry.getKey(), new AtlasRegion(atlasImage, region));
+        }
+        g.dispose();
+        return new SpriteAtlas(atlasImage, regions);
+    }
+
+    /**
+     * Places the images on shelves of the given width: left to right, starting a new shelf
+     * under the current one when an image does not fit.
+     *
+     * @param entries The images to place, from the tallest to the shortest.
+     * @param atlasWidth The width of the shelves, at least as wide as the widest padded image.
+     * @param bounds Receives the bounds of every image, or null to only measure the height.
+     * @return The height of the atlas (at least 1).
+     */
+    private static int shelfPack(List<Map.Entry<String, BufferedImage>> entries, int atlasWidth,
+                                 Map<String, Rectangle> bounds) {
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (Map.Entry<String, BufferedImage> entry : entries) {
+            int width = entry.getValue().getWidth();
+            int height = entry.getValue().getHeight();
+            if (shelfX + width + REGION_PADDING > atlasWidth) {
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (bounds != null) {
+                bounds.put(entry.getKey(), new Rectangle(shelfX, shelfY, width, height));
+            }
+            shelfX += width + REGION_PADDING;
+            shelfHeight = Math.max(shelfHeight, height + REGION_PADDING);
+        }
+        return Math.max(1, shelfY + shelfHeight);
+    }
+
+    /**
+     * Returns the shared renderable of a packed image.
+     *
+     * @param key The key of the image.
+     * @return The region of the image, or null if the image is not in the atlas.
+     */
+    public AtlasRegion region(String key) {
+        return regions.get(key);
+    }
+
+    /**
+     * Returns the region of every packed image.
+     *
+     * @return The regions, keyed like the images passed to pack.
+     */
+    public Map<String, AtlasRegion> getRegions() {
+        return Collections.unmodifiableMap(regions);
+    }
+
+    /**
+     * Returns the atlas image.
+     *
+     * @return The image holding all the packed images.
+     */
+    public BufferedImage getImage() {
+        return atlasImage;
+    }
+}
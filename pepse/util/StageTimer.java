@@ -0,0 +1,34 @@
+package pepse.util;
+
+/**
+ * Measures the stages of a multi-stage process (like the game startup), and prints how long
+ * every stage took and the total time.
+ */
+public class StageTimer {
+    /** The number of nanoseconds in a millisecond. */
+    private static final double NANOS_IN_MILLI = 1e6;
+
+    /** The time the timer was created at, in nanoseconds. */
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Runs a stage and prints how long it took.
+     *
+     * @param stageName The name of the stage.
+     * @param stage The stage to run.
+     */
+    public void run(String stageName, Runnable stage) {
+        long stageStart = System.nanoTime();
+        stage.run();
+        System.out.println(String.format(Constants.STAGE_TIME_FORMAT, stageName,
+                (System.nanoTime() - stageStart) / NANOS_IN_MILLI));
+    }
+
+    /**
+     * Prints the time since the timer was created.
+     */
+    public void printTotal() {
+        System.out.println(String.format(Constants.STAGE_TOTAL_TIME_FORMAT,
+                (System.nanoTime() - startTime) / NANOS_IN_MILLI));
+    }
+}
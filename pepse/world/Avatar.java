@@ -2,11 +2,11 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.gui.ImageReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.AnimationRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
 
 import java.awt.event.KeyEvent;
@@ -64,9 +64,9 @@ public class Avatar extends GameObject {
      *
      * @param topLeftCorner The initial position of the avatar.
      * @param inputListener Handles user input for controlling the avatar.
-     * @param imageReader Reads images for creating animations.
+     * @param assetCache The asset cache, for the images of the animations.
      */
-    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader) {
+    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, AssetCache assetCache) {
         super(topLeftCorner, Vector2.ONES.mult(Constants.AVATAR_SIZE), null);
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         transform().setAccelerationY(GRAVITY);
@@ -75,11 +75,11 @@ public class Avatar extends GameObject {
         this.energy = Constants.MAX_ENERGY;
 
         // Load animations
-        this.idleAnimation = createAnimation(imageReader, Constants.AVATAR_IDLE_PATH_FORMAT,
+        this.idleAnimation = createAnimation(assetCache, Constants.AVATAR_IDLE_PATH_FORMAT,
                 Constants.NUM_IDLE_FRAMES);
-        this.runAnimation = createAnimation(imageReader, Constants.AVATAR_RUN_PATH_FORMAT,
+        this.runAnimation = createAnimation(assetCache, Constants.AVATAR_RUN_PATH_FORMAT,
                 Constants.NUM_RUN_FRAMES);
-        this.jumpAnimation = createAnimation(imageReader, Constants.AVATAR_JUMP_PATH_FORMAT,
+        this.jumpAnimation = createAnimation(assetCache, Constants.AVATAR_JUMP_PATH_FORMAT,
                 Constants.NUM_JUMP_FRAMES);
 
         // Set initial renderable to idle animation
@@ -89,15 +89,15 @@ public class Avatar extends GameObject {
     /**
      * Creates an animation renderable using the given images.
      *
-     * @param imageReader Reads the animation frames.
+     * @param assetCache Reads the animation frames.
      * @param basePath The base path for the animation images.
      * @param frameCount The number of frames in the animation.
      * @return The constructed AnimationRenderable.
      */
-    private AnimationRenderable createAnimation(ImageReader imageReader, String basePath, int frameCount) {
+    private AnimationRenderable createAnimation(AssetCache assetCache, String basePath, int frameCount) {
         Renderable[] frames = new Renderable[frameCount];
         for (int i = 0; i < frameCount; i++) {
-            frames[i] = imageReader.readImage(String.format(basePath, i), true);
+            frames[i] = assetCache.readImage(String.format(basePath, i), true);
         }
         return new AnimationRenderable(frames, ANIMATION_FRAME_DURATION);
     }
@@ -1,181 +1,111 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.components.Transition;
-import danogl.gui.ImageReader;
-import danogl.gui.rendering.RectangleRenderable;
-import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
 import pepse.util.Constants;
+import pepse.util.CoordinateHash;
+import pepse.util.NoiseGenerator;
+import pepse.util.RenderablePalette;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-import java.util.function.Consumer;
-
-import static pepse.util.Constants.CLOUD_LAYOUT;
-import static pepse.util.Constants.DROP_OPACITY_CYCLE;
 
 /**
- * Represents a cloud composed of blocks. The cloud moves horizontally across the screen
- * and is created using a static layout with randomized white shades for the blocks.
- * This class also manages a pool of raindrops to simulate rainfall during gameplay.
+ * Represents a cloud composed of blocks, moving horizontally across the screen as a single
+ * object. Its shape is generated from seeded noise, and its white shades are hashed from the
+ * world seed. Clouds are reusable: a WeatherManager respawns them with a new shape, position
+ * and speed.
  */
-public class Cloud {
-    /** Random number generator for color variation. */
-    private static final Random RANDOM = new Random();
-
-    /** List of blocks forming the cloud. */
-    private final List<Block> cloudBlocks;
-
-    /** Dimensions of the game window. */
-    private final Vector2 windowDimensions;
+public class Cloud extends GameObject {
+    /** The hash row of the palette variants, away from any row used by the world. */
+    private static final int PALETTE_HASH_ROW = Integer.MIN_VALUE + 1;
 
-    /** Time it takes for the cloud to complete one movement cycle across the screen. */
-    private final int cycleLength;
+    /** The dimensions of every cloud: all the shapes share the same grid of blocks. */
+    private static final Vector2 CLOUD_DIMENSIONS = new Vector2(
+            Constants.CLOUD_COLUMNS * Block.SIZE, Constants.CLOUD_ROWS * Block.SIZE);
 
-    /** ImageReader instance for loading textures and images. */
-    private final ImageReader imageReader;
-
-    /** Pool of reusable raindrop objects to optimize performance. */
-    private final List<GameObject> rainPool = new ArrayList<>();
-
-    /** Number of raindrops to keep in the pool for reuse. */
-    private final int poolSize = Constants.MAX_NUM_DROPS * DROP_OPACITY_CYCLE;
+    /** The horizontal speed of the cloud, in pixels per second. */
+    private float speed = 0;
 
     /**
-     * Constructs a Cloud object and initializes the cloud blocks and raindrop pool.
+     * Constructs a Cloud object, standing still until it is respawned.
      *
-     * @param windowDimensions The dimensions of the game window.
-     * @param cycleLength The time it takes for the cloud to cross the screen.
-     * @param imageReader The ImageReader instance used for loading images.
+     * @param topLeftCorner The initial position of the cloud, in camera coordinates.
+     * @param shape The initial look of the cloud, one of the shapes made by createShape.
      */
-    public Cloud(
-            Vector2 windowDimensions,
-            int cycleLength,
-            ImageReader imageReader) {
-        this.windowDimensions = windowDimensions;
-        this.cycleLength = cycleLength;
-        this.imageReader = imageReader;
-        this.cloudBlocks = new ArrayList<>();
-
-        createCloudBlocks();
-        initializeRainPool(); // Initialize the raindrop pool
+    public Cloud(Vector2 topLeftCorner, CloudRenderable shape) {
+        super(topLeftCorner, CLOUD_DIMENSIONS, shape);
+        this.setTag(Constants.CLOUD);
     }
 
     /**
-     * Randomizes the color of the cloud blocks slightly by adjusting the RGB values.
+     * Creates the white shades of the clouds, fully determined by the world seed.
      *
-     * @return A randomized color based on the base cloud color.
+     * @param seed The world seed.
+     * @return The palette of the cloud blocks, to pass to createShape.
      */
-    private Color getRandomizedColor() {
-        int red = Math.min(Constants.COLOR_MAX, Math.max(Constants.COLOR_MIN,
-                Constants.BASE_CLOUD_COLOR.getRed() +
-                        RANDOM.nextInt(2 * Constants.COLOR_VARIATION + 1)-Constants.COLOR_VARIATION));
-        int green = Math.min(Constants.COLOR_MAX, Math.max(Constants.COLOR_MIN,
-                Constants.BASE_CLOUD_COLOR.getGreen() +
-                        RANDOM.nextInt(2 * Constants.COLOR_VARIATION + 1)-Constants.COLOR_VARIATION));
-        int blue = Math.min(Constants.COLOR_MAX, Math.max(Constants.COLOR_MIN,
-                Constants.BASE_CLOUD_COLOR.getBlue() +
-                        RANDOM.nextInt(2 * Constants.COLOR_VARIATION + 1)-Constants.COLOR_VARIATION));
-        return new Color(red, green, blue);
+    public static RenderablePalette createPalette(int seed) {
+        return new RenderablePalette(Constants.PALETTE_VARIANTS,
+                variant -> ColorSupplier.approximateMonoColor(ColorSupplier.hashedColor(
+                        Constants.BASE_CLOUD_COLOR, Constants.COLOR_VARIATION,
+                        CoordinateHash.hash(seed, variant, PALETTE_HASH_ROW))));
     }
 
     /**
-     * Creates the cloud blocks based on a predefined layout and adds a horizontal movement transition.
+     * Creates the look of a cloud shape, a rounded CLOUD_ROWS x CLOUD_COLUMNS grid of blocks.
+     * Every index gives a different shape, and the same noise always gives the same shapes.
+     *
+     * @param shapeNoise The noise the shapes are drawn from.
+     * @param shapeIndex The index of the shape.
+     * @param palette The white shades of the blocks, made by createPalette.
+     * @return The renderable drawing the whole shape.
      */
-    private void createCloudBlocks() {
-        Vector2 topLeftCorner =
-                new Vector2(0, windowDimensions.y() * Constants.CLOUD_LOCATION_X_RATIO);
-
-        for (int i = 0; i < CLOUD_LAYOUT.size(); i++) {
-            for (int j = 0; j < CLOUD_LAYOUT.get(i).size(); j++) {
-                if (CLOUD_LAYOUT.get(i).get(j) == 1) {
-                    Color color = getRandomizedColor();
-                    Renderable cloudRenderable = new RectangleRenderable(
-                            ColorSupplier.approximateMonoColor(color));
-                    Vector2 cloudBlockPosition = new Vector2(
-                            topLeftCorner.x() + j * Block.SIZE,
-                            topLeftCorner.y() + i * Block.SIZE
-                    );
-                    Block cloudBlock = new Block(cloudBlockPosition, cloudRenderable);
-                    cloudBlock.setTag(Constants.CLOUD);
-                    this.cloudBlocks.add(cloudBlock);
-                    float endX = windowDimensions.x() + cloudBlockPosition.x();
-
-                    // Add horizontal movement to the cloud
-                    new Transition<>(
-                            cloudBlock,
-                            (Float x) -> cloudBlock.setTopLeftCorner(new Vector2(x, cloudBlockPosition.y())),
-                            cloudBlockPosition.x(), // Start outside the left screen boundary
-                            endX, // Move to outside the right screen boundary
-                            Transition.LINEAR_INTERPOLATOR_FLOAT,
-                            cycleLength,
-                            Transition.TransitionType.TRANSITION_LOOP,
-                            null // No additional behavior after transition
-                    );
-                }
+    public static CloudRenderable createShape(NoiseGenerator shapeNoise, int shapeIndex,
+                                              RenderablePalette palette) {
+        int rows = Constants.CLOUD_ROWS;
+        int columns = Constants.CLOUD_COLUMNS;
+        Color[][] cellColors = new Color[rows][columns];
+        for (int column = 0; column < columns; column++) {
+            float u = (column + Constants.HALF) / columns * 2 - 1; // -1 to 1 across the cloud
+            double dome = Math.sqrt(1 - u * u);
+            double bump = shapeNoise.noise1D((shapeIndex * columns + column) * Block.SIZE,
+                    Constants.CLOUD_SHAPE_BUMPINESS);
+            double bottomEdge = rows * (1 - (1 - dome) * Constants.CLOUD_BOTTOM_LIFT_RATIO);
+            double topEdge = bottomEdge -
+                    rows * dome * (Constants.CLOUD_DOME_RATIO + Math.max(0, bump));
+            // A cell is filled when its center is between the edges
+            int topRow = Math.max(0, (int) Math.ceil(topEdge - Constants.HALF));
+            int bottomRow = Math.min(rows - 1, (int) Math.floor(bottomEdge - Constants.HALF));
+            for (int row = topRow; row <= bottomRow; row++) {
+                cellColors[row][column] = palette.colorAt(
+                        (shapeIndex * rows + row) * columns + column);
             }
         }
+        return new CloudRenderable(cellColors);
     }
 
     /**
-     * Initializes the pool of reusable raindrops.
-     */
-    private void initializeRainPool() {
-        for (int i = 0; i < poolSize; i++) {
-            GameObject waterDrop = Rain.create(imageReader);
-            waterDrop.renderer().setOpaqueness(0); // Make initially invisible
-            rainPool.add(waterDrop);
-        }
-    }
-
-    /**
-     * Returns the list of cloud blocks forming the cloud.
+     * Respawns the cloud with a new look, position and speed.
      *
-     * @return A list of Block objects representing the cloud.
+     * @param shape The new look of the cloud, one of the shapes made by createShape.
+     * @param topLeftCorner The new position of the cloud, in camera coordinates.
+     * @param speed The new horizontal speed of the cloud, in pixels per second.
      */
-    public List<Block> getCloudBlocks() {
-        return this.cloudBlocks;
+    public void respawn(CloudRenderable shape, Vector2 topLeftCorner, float speed) {
+        renderer().setRenderable(shape);
+        setTopLeftCorner(topLeftCorner);
+        this.speed = speed;
     }
 
     /**
-     * Creates raindrops that fall from the cloud. The raindrops are taken from the pool
-     * and returned to the pool after falling.
+     * Moves the cloud to the right. This is the only per-frame work of the cloud.
      *
-     * @param removeGameObject A consumer for removing raindrops from the game world.
-     * @return A list of active raindrops to be added to the game world.
+     * @param deltaTime The time elapsed since the last frame, in seconds.
      */
-    public List<GameObject> createRain(Consumer<GameObject> removeGameObject) {
-        Block middleCloudBlock = cloudBlocks.get(Constants.NUM_CLOUD_BLOCKS / 2);
-        Vector2 cloudCenter = middleCloudBlock.getCenter();
-        Random random = new Random();
-
-        List<GameObject> activeRain = new ArrayList<>();
-        int numDrops = random.nextInt(Constants.MAX_NUM_DROPS) + 1;
-
-        for (int i = 0; i < numDrops; i++) {
-            if (rainPool.isEmpty()) break;
-
-            GameObject waterDrop = rainPool.removeFirst();
-            if (waterDrop != null) {
-                float offsetX = random.nextFloat(
-                        -Constants.DROP_LOC_X_VARIATION, Constants.DROP_LOC_X_VARIATION);
-                float offsetY = random.nextFloat(
-                        -Constants.DROP_LOC_Y_VARIATION, Constants.DROP_LOC_Y_VARIATION);
-                Vector2 dropPosition = cloudCenter.add(new Vector2(offsetX, offsetY));
-
-                Rain.initializeRainTransition(waterDrop, dropPosition, drop -> {
-                    rainPool.add(drop); // Return drop to pool after use
-                    drop.renderer().setOpaqueness(0); // Make it invisible
-                    removeGameObject.accept(drop);
-                });
-
-                activeRain.add(waterDrop);
-            }
-        }
-        return activeRain;
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        Vector2 topLeftCorner = getTopLeftCorner();
+        setTopLeftCorner(new Vector2(topLeftCorner.x() + speed * deltaTime, topLeftCorner.y()));
     }
 }
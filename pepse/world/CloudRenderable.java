@@ -0,0 +1,63 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+
+/**
+ * A renderable that draws a grid of colored cells in a single pass, leaving the empty cells
+ * transparent. Used to draw the whole block layout of a cloud relative to the cloud's position.
+ */
+public class CloudRenderable implements Renderable {
+    /** The color of every cell, by row and column, or null for an empty cell. */
+    private final Color[][] cellColors;
+
+    /**
+     * Constructs a CloudRenderable.
+     *
+     * @param cellColors The color of every cell, by row and column, or null for an empty cell.
+     *                   All the rows have the same length.
+     */
+    public CloudRenderable(Color[][] cellColors) {
+        this.cellColors = cellColors;
+    }
+
+    /**
+     * Draws the filled cells of the grid, stretched over the given dimensions.
+     *
+     * @param g The graphics context to draw on.
+     * @param topLeftCorner The top-left corner of the grid on the screen.
+     * @param dimensions The dimensions of the whole grid on the screen.
+     * @param degreesCounterClockwise Ignored, clouds are never rotated.
+     * @param isFlippedHorizontally Ignored, clouds are never flipped.
+     * @param isFlippedVertically Ignored, clouds are never flipped.
+     * @param opaqueness The opaqueness of the grid, between 0 and 1.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite originalComposite = g.getComposite();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+
+        float cellHeight = dimensions.y() / cellColors.length;
+        float cellWidth = dimensions.x() / cellColors[0].length;
+        for (int row = 0; row < cellColors.length; row++) {
+            int cellTop = Math.round(topLeftCorner.y() + row * cellHeight);
+            int cellBottom = Math.round(topLeftCorner.y() + (row + 1) * cellHeight);
+            for (int column = 0; column < cellColors[row].length; column++) {
+                if (cellColors[row][column] != null) {
+                    int cellLeft = Math.round(topLeftCorner.x() + column * cellWidth);
+                    int cellRight = Math.round(topLeftCorner.x() + (column + 1) * cellWidth);
+                    g.setColor(cellColors[row][column]);
+                    g.fillRect(cellLeft, cellTop, cellRight - cellLeft, cellBottom - cellTop);
+                }
+            }
+        }
+
+        g.setComposite(originalComposite);
+    }
+}
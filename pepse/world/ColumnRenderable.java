@@ -0,0 +1,57 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+
+/**
+ * A renderable that draws a vertical stack of equally sized colored cells in a single pass.
+ * Used to give a single terrain column the layered look of a column of separate blocks.
+ */
+public class ColumnRenderable implements Renderable {
+    /** The colors of the cells, from the top cell to the bottom cell. */
+    private final Color[] cellColors;
+
+    /**
+     * Constructs a ColumnRenderable.
+     *
+     * @param cellColors The colors of the cells, from the top cell to the bottom cell.
+     */
+    public ColumnRenderable(Color[] cellColors) {
+        this.cellColors = cellColors;
+    }
+
+    /**
+     * Draws the cells of the column, one under the other, filling the given dimensions.
+     *
+     * @param g The graphics context to draw on.
+     * @param topLeftCorner The top-left corner of the column on the screen.
+     * @param dimensions The dimensions of the whole column on the screen.
+     * @param degreesCounterClockwise Ignored, terrain columns are never rotated.
+     * @param isFlippedHorizontally Ignored, the cells are symmetric.
+     * @param isFlippedVertically Ignored, the cells are symmetric.
+     * @param opaqueness The opaqueness of the column, between 0 and 1.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite originalComposite = g.getComposite();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+
+        int left = Math.round(topLeftCorner.x());
+        int width = Math.round(dimensions.x());
+        float cellHeight = dimensions.y() / cellColors.length;
+        for (int i = 0; i < cellColors.length; i++) {
+            int cellTop = Math.round(topLeftCorner.y() + i * cellHeight);
+            int cellBottom = Math.round(topLeftCorner.y() + (i + 1) * cellHeight);
+            g.setColor(cellColors[i]);
+            g.fillRect(left, cellTop, width, cellBottom - cellTop);
+        }
+
+        g.setComposite(originalComposite);
+    }
+}
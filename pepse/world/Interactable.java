@@ -0,0 +1,38 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+
+/**
+ * An object of the game world that the avatar interacts with by touching it, without the engine
+ * colliding it. Interactables are kept in a SpatialHashGrid, and the avatar queries the grid
+ * around itself every frame.
+ */
+public interface Interactable {
+    /**
+     * Returns the top-left corner of the object, in world coordinates.
+     *
+     * @return The top-left corner of the object.
+     */
+    Vector2 getTopLeftCorner();
+
+    /**
+     * Returns the dimensions of the object.
+     *
+     * @return The dimensions of the object.
+     */
+    Vector2 getDimensions();
+
+    /**
+     * Returns whether the avatar can interact with the object right now.
+     *
+     * @return True if the object is active, false if the avatar should ignore it.
+     */
+    boolean isActive();
+
+    /**
+     * Called when the avatar touches the object while it is active.
+     *
+     * @param avatar The avatar touching the object.
+     */
+    void interact(Avatar avatar);
+}
@@ -0,0 +1,162 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A world-space spatial index of interactables: a uniform grid of square cells, stored sparsely
+ * in a hash map, so only the cells that hold objects take memory. Every object is kept in the
+ * cell of its center, and objects are never larger than a cell, so a query only visits the cells
+ * around the queried box, however many objects the world holds.
+ *
+ * @param <T> The type of the indexed objects.
+ */
+public class SpatialHashGrid<T extends Interactable> {
+    /** The side of every cell. */
+    private final int cellSize;
+
+    /** The objects of every non-empty cell, keyed by the packed cell coordinates. */
+    private final Map<Long, List<T>> cells = new HashMap<>();
+
+    /** The number of indexed objects. */
+    private int size = 0;
+
+    /**
+     * Constructs an empty SpatialHashGrid.
+     *
+     * @param cellSize The side of every cell. Must not be smaller than any indexed object.
+     */
+    public SpatialHashGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds an object to the grid, in the cell of its current center. The object must not move
+     * while it is in the grid.
+     *
+     * @param item The object to add.
+     */
+    public void insert(T item) {
+        cells.computeIfAbsent(cellKeyOf(item), key -> new ArrayList<>()).add(item);
+        size++;
+    }
+
+    /**
+     * Removes an object from the grid.
+     *
+     * @param item The object to remove.
+     * @return True if the object was in the grid.
+     */
+    public boolean remove(T item) {
+        long key = cellKeyOf(item);
+        List<T> cell = cells.get(key);
+        if (cell == null || !cell.remove(item)) {
+            return false;
+        }
+        if (cell.isEmpty()) {
+            cells.remove(key); // Keep only the non-empty cells, as the world streams by
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Visits every active object that overlaps a box.
+     *
+     * @param topLeftCorner The top-left corner of the box, in world coordinates.
+     * @param dimensions The dimensions of the box.
+     * @param action Called with every active object overlapping the box.
+     */
+    public void query(Vector2 topLeftCorner, Vector2 dimensions, Consumer<T> action) {
+        float minX = topLeftCorner.x();
+        float minY = topLeftCorner.y();
+        float maxX = minX + dimensions.x();
+        float maxY = minY + dimensions.y();
+
+        // An overlapping object has its center at most half a cell outside of the box
+        float margin = cellSize / 2f;
+        int firstColumn = cellIndex(minX - margin);
+        int lastColumn = cellIndex(maxX + margin);
+        int firstRow = cellIndex(minY - margin);
+        int lastRow = cellIndex(maxY + margin);
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                List<T> cell = cells.get(cellKey(column, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    T item = cell.get(i);
+                    if (item.isActive() && overlaps(item, minX, minY, maxX, maxY)) {
+                        action.accept(item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of objects in the grid.
+     *
+     * @return The number of indexed objects.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether an object overlaps a box.
+     *
+     * @param item The object.
+     * @param minX The left edge of the box.
+     * @param minY The top edge of the box.
+     * @param maxX The right edge of the box.
+     * @param maxY The bottom edge of the box.
+     * @return True if the object and the box overlap.
+     */
+    private static boolean overlaps(Interactable item, float minX, float minY, float maxX, float maxY) {
+        Vector2 itemTopLeft = item.getTopLeftCorner();
+        Vector2 itemDimensions = item.getDimensions();
+        return itemTopLeft.x() < maxX && itemTopLeft.x() + itemDimensions.x() > minX &&
+                itemTopLeft.y() < maxY && itemTopLeft.y() + itemDimensions.y() > minY;
+    }
+
+    /**
+     * Returns the key of the cell holding an object.
+     *
+     * @param item The object.
+     * @return The packed coordinates of the cell of the object's center.
+     */
+    private long cellKeyOf(T item) {
+        Vector2 topLeft = item.getTopLeftCorner();
+        Vector2 dimensions = item.getDimensions();
+        return cellKey(cellIndex(topLeft.x() + dimensions.x() / 2),
+                cellIndex(topLeft.y() + dimensions.y() / 2));
+    }
+
+    /**
+     * Returns the index of the cell column or row containing a coordinate.
+     *
+     * @param coordinate The x or y coordinate.
+     * @return The index of the column or row.
+     */
+    private int cellIndex(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Packs the coordinates of a cell into a single key.
+     *
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return The key of the cell.
+     */
+    private static long cellKey(int column, int row) {
+        return ((long) column << Integer.SIZE) | (row & 0xFFFFFFFFL);
+    }
+}
@@ -4,17 +4,21 @@
  */
 package pepse.world;
 
-import danogl.gui.rendering.RectangleRenderable;
-import danogl.gui.rendering.Renderable;
+import danogl.GameObject;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
 import pepse.util.Constants;
+import pepse.util.CoordinateHash;
 import pepse.util.NoiseGenerator;
+import pepse.util.RenderablePalette;
+import pepse.world.biomes.Biome;
+import pepse.world.biomes.BiomeMap;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 
 /**
@@ -22,8 +26,12 @@ import java.util.Random;
  * that form the ground. The terrain dynamically generates blocks based on a noise function,
  * providing a natural and varied appearance.
  * - The terrain height is calculated using a Perlin noise generator.
- * - Blocks are created in columns to represent the ground and its depth.
+ * - The colors of the ground are picked by the biome of every column.
+ * - Every column of the ground is a collidable surface block on top of a single decorative
+ *   subsurface object, drawn as a stack of blocks.
  * - The terrain supports dynamic generation for a specified horizontal range.
+ * - Heights of block columns are kept in a bounded LRU cache of pages, so repeated and
+ *   overlapping queries are array lookups.
  * This class allows for easy integration of procedurally generated ground into the game.
  */
 public class Terrain {
@@ -36,8 +44,38 @@ public class Terrain {
     /** The base height of the ground at the x = 0 position. */
     private final int groundHeightAtX0;
 
-    /** Random number generator for color variation. */
-    private static final Random RANDOM = new Random();
+    /** The grid row used to hash the palette variants, far below any real terrain row. */
+    private static final int PALETTE_HASH_ROW = Integer.MIN_VALUE;
+
+    /**
+     * The precomputed ground colors of each biome, and a shared renderable for each (used by
+     * surface blocks), indexed by the biome ordinal.
+     */
+    private final RenderablePalette[] groundPalettes;
+
+    /** The precomputed looks of the subsurface columns of each biome, indexed by the biome ordinal. */
+    private final ColumnRenderable[][] columnVariants;
+
+    /** Selects the biome of every column, from the ground heights and the climate fields. */
+    private final BiomeMap biomeMap;
+
+    /**
+     * The height-map cache: pages of consecutive block column heights, keyed by page index,
+     * in access order so the least recently used page is evicted first. Guarded by this.
+     */
+    private final Map<Integer, float[]> heightPages =
+            new LinkedHashMap<>(Constants.HEIGHT_CACHE_PAGES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+                    return size() > Constants.HEIGHT_CACHE_PAGES;
+                }
+            };
+
+    /** The number of page lookups found in the height-map cache. */
+    private long cacheHits = 0;
+
+    /** The number of page lookups that had to compute a page. */
+    private long cacheMisses = 0;
 
     /**
      * Constructs a new Terrain object.
@@ -52,66 +90,198 @@ public class Terrain {
         // Initialize NoiseGenerator with the seed and starting point
         noiseGenerator = new NoiseGenerator(seed, groundHeightAtX0);
 
+        biomeMap = new BiomeMap(seed, groundHeightAtX0, this::heightsInRange);
+
+        // Precompute the colors and renderables once, so creating terrain allocates none
+        Biome[] biomes = Biome.values();
+        groundPalettes = new RenderablePalette[biomes.length];
+        columnVariants = new ColumnRenderable[biomes.length][Constants.COLUMN_VARIANTS];
+        for (Biome biome : biomes) {
+            RenderablePalette palette = new RenderablePalette(Constants.PALETTE_VARIANTS,
+                    variant -> ColorSupplier.hashedColor(biome.getGroundColor(),
+                            2 * Constants.COLOR_VARIATION,
+                            CoordinateHash.hash(seed, variant, PALETTE_HASH_ROW)));
+            groundPalettes[biome.ordinal()] = palette;
+            for (int i = 0; i < Constants.COLUMN_VARIANTS; i++) {
+                Color[] cellColors = new Color[Constants.TERRAIN_DEPTH - 1];
+                for (int y = 0; y < cellColors.length; y++) {
+                    cellColors[y] = palette.colorAt(variantAt(i, y + 1));
+                }
+                columnVariants[biome.ordinal()][i] = new ColumnRenderable(cellColors);
+            }
+        }
     }
 
     /**
      * Calculates the ground height at a specific x-coordinate based on noise generation.
+     * Heights of block columns come from the height-map cache.
      *
      * @param x The x-coordinate to calculate the ground height for.
      * @return The calculated ground height at the specified x-coordinate.
      */
     public float groundHeightAt(float x) {
-        return (float) (groundHeightAtX0 + noiseGenerator.noise(x, Constants.NOISE_FACTOR));
+        if (x == Math.floor(x) && ((int) x) % Block.SIZE == 0) {
+            int column = (int) x / Block.SIZE;
+            float[] page = heightPage(Math.floorDiv(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS));
+            return page[Math.floorMod(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS)];
+        }
+        return (float) (groundHeightAtX0 + noiseGenerator.noise1D(x, Constants.NOISE_FACTOR));
+    }
+
+    /**
+     * Returns the number of height-map page lookups that were found in the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Returns the number of height-map page lookups that had to compute the page.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Returns a page of the height-map cache, computing it on a miss.
+     * Synchronized, since chunks are generated on a background thread.
+     *
+     * @param pageIndex The index of the page.
+     * @return The heights of the HEIGHT_CACHE_PAGE_COLUMNS block columns of the page.
+     */
+    private synchronized float[] heightPage(int pageIndex) {
+        float[] page = heightPages.get(pageIndex);
+        if (page != null) {
+            cacheHits++;
+            return page;
+        }
+        cacheMisses++;
+
+        int pageStartX = pageIndex * Constants.HEIGHT_CACHE_PAGE_COLUMNS * Block.SIZE;
+        double[] noise = new double[Constants.HEIGHT_CACHE_PAGE_COLUMNS];
+        noiseGenerator.noise1D(pageStartX, Block.SIZE, Constants.NOISE_FACTOR, noise);
+        page = new float[noise.length];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = (float) (groundHeightAtX0 + noise[i]);
+        }
+        heightPages.put(pageIndex, page);
+        return page;
+    }
+
+    /**
+     * Calculates the ground heights of all the block columns in the specified x-coordinate range,
+     * copied from the height-map cache page by page.
+     * heightsInRange(minX, maxX)[i] equals groundHeightAt of the i-th column.
+     *
+     * @param minX The minimum x-coordinate of the range, rounded down to a block column.
+     * @param maxX The maximum x-coordinate of the range, rounded up to a block column.
+     * @return The ground height of each block column in the range, from left to right.
+     */
+    public float[] heightsInRange(int minX, int maxX) {
+        int adjustedMinX = (int) Math.floor((double) minX / Block.SIZE) * Block.SIZE;
+        int adjustedMaxX = (int) Math.ceil((double) maxX / Block.SIZE) * Block.SIZE;
+
+        float[] groundHeights = new float[(adjustedMaxX - adjustedMinX) / Block.SIZE + 1];
+        int firstColumn = adjustedMinX / Block.SIZE;
+        int filled = 0;
+        while (filled < groundHeights.length) {
+            int column = firstColumn + filled;
+            int offset = Math.floorMod(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS);
+            float[] page = heightPage(Math.floorDiv(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS));
+            int count = Math.min(page.length - offset, groundHeights.length - filled);
+            System.arraycopy(page, offset, groundHeights, filled, count);
+            filled += count;
+        }
+        return groundHeights;
+    }
+
+    /**
+     * Returns the biome of the block column containing the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The biome at x.
+     */
+    public Biome biomeAt(float x) {
+        return biomeMap.biomeAt(x);
     }
 
     /**
-     * Randomizes the color of the terrain blocks slightly by adjusting the RGB values.
+     * Returns the biomes of all the block columns in the specified x-coordinate range.
+     * biomesInRange(minX, maxX)[i] is the biome of the i-th column of heightsInRange(minX, maxX).
      *
-     * @return A randomized color based on the base ground color.
+     * @param minX The minimum x-coordinate of the range, rounded down to a block column.
+     * @param maxX The maximum x-coordinate of the range, rounded up to a block column.
+     * @return The biome of each block column in the range, from left to right.
      */
-    private Color getRandomizedColor() {
-        int red = Math.min(Constants.COLOR_MAX, Math.max(Constants.COLOR_MIN,
-                Constants.BASE_GROUND_COLOR.getRed() +
-                        RANDOM.nextInt(2 * Constants.COLOR_VARIATION + 1)-Constants.COLOR_VARIATION));
-        int green = Math.min(Constants.COLOR_MAX, Math.max(Constants.COLOR_MIN,
-                Constants.BASE_GROUND_COLOR.getGreen() +
-                        RANDOM.nextInt(2 * Constants.COLOR_VARIATION + 1)-Constants.COLOR_VARIATION));
-        int blue = Math.min(Constants.COLOR_MAX, Math.max(Constants.COLOR_MIN,
-                Constants.BASE_GROUND_COLOR.getBlue() +
-                        RANDOM.nextInt(2 * Constants.COLOR_VARIATION + 1)-Constants.COLOR_VARIATION));
-        return new Color(red, green, blue);
+    public Biome[] biomesInRange(int minX, int maxX) {
+        return biomeMap.biomesInRange(minX, maxX);
     }
 
+    /**
+     * Picks a variant index for a cell of the terrain grid. The index is a pure function of the
+     * seed and the cell, so a region gets the same colors every time it is generated.
+     *
+     * @param column The column index of the cell.
+     * @param row The row index of the cell.
+     * @return A non-negative variant index.
+     */
+    private int variantAt(int column, int row) {
+        return CoordinateHash.positiveHash(seed, column, row);
+    }
 
     /**
-     * Creates a list of blocks representing the terrain within the specified x-coordinate range.
+     * Creates the terrain within the specified x-coordinate range.
+     * Each column is made of a collidable surface block (tagged GROUND), and a single decorative
+     * subsurface column (tagged SUBSURFACE) drawn as the TERRAIN_DEPTH - 1 blocks under it.
      *
      * @param minX The minimum x-coordinate of the range.
      * @param maxX The maximum x-coordinate of the range.
-     * @return A list of blocks representing the terrain in the specified range.
+     * @return A list of the surface blocks and subsurface columns in the specified range.
      */
-    public List<Block> createInRange(int minX, int maxX) {
-        List<Block> blockList = new ArrayList<>();
-
+    public List<GameObject> createInRange(int minX, int maxX) {
         // Round minX and maxX to bounds divisible by Block.SIZE
         int adjustedMinX = (int) Math.floor((double) minX / Block.SIZE) * Block.SIZE;
         int adjustedMaxX = (int) Math.ceil((double) maxX / Block.SIZE) * Block.SIZE;
 
-        // Create blocks along the X range
-        for (int x = adjustedMinX; x <= adjustedMaxX; x += Block.SIZE) {
+        return createFromHeights(adjustedMinX, heightsInRange(adjustedMinX, adjustedMaxX),
+                biomesInRange(adjustedMinX, adjustedMaxX));
+    }
+
+    /**
+     * Creates the terrain along consecutive block columns, from precomputed ground heights
+     * and biomes.
+     *
+     * @param minX The block-aligned x-coordinate of the first column.
+     * @param groundHeights The ground height (as returned by heightsInRange) of each column,
+     *                      starting at minX.
+     * @param biomes The biome (as returned by biomesInRange) of each column, starting at minX.
+     * @return A list of the surface blocks and subsurface columns along the columns.
+     */
+    public List<GameObject> createFromHeights(int minX, float[] groundHeights, Biome[] biomes) {
+        List<GameObject> terrainObjects = new ArrayList<>();
+
+        for (int i = 0; i < groundHeights.length; i++) {
+            int x = minX + i * Block.SIZE;
             // Calculate the starting height of the top block in the column
-            float groundHeight = (float) Math.floor(groundHeightAt(x) / Block.SIZE) * Block.SIZE;
-
-            // Create a column of blocks with a fixed depth (TERRAIN_DEPTH)
-            for (int y = 0; y < Constants.TERRAIN_DEPTH; y++) {
-                int blockY = (int) groundHeight + (y * Block.SIZE);
-                Renderable renderable =
-                        new RectangleRenderable(ColorSupplier.approximateColor(getRandomizedColor()));
-                Block block = new Block(new Vector2(x, blockY), renderable);
-                block.setTag(Constants.GROUND);
-                blockList.add(block);
-            }
+            float groundHeight = (float) Math.floor(groundHeights[i] / Block.SIZE) * Block.SIZE;
+            int column = x / Block.SIZE;
+            int biome = biomes[i].ordinal();
+
+            // Create the surface block, the only part of the column that collides
+            Block surfaceBlock = new Block(new Vector2(x, groundHeight),
+                    groundPalettes[biome].renderableAt(variantAt(column, 0)));
+            surfaceBlock.setTag(Constants.GROUND);
+            terrainObjects.add(surfaceBlock);
+
+            // Add the blocks under the surface, up to a fixed depth (TERRAIN_DEPTH), with a shared look
+            ColumnRenderable columnLook =
+                    columnVariants[biome][variantAt(column, 1) % Constants.COLUMN_VARIANTS];
+            terrainObjects.add(new TerrainColumn(new Vector2(x, groundHeight + Block.SIZE), columnLook));
         }
-        return blockList;
+        return terrainObjects;
     }
 }
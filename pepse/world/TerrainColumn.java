@@ -0,0 +1,28 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+/**
+ * Represents the subsurface part of a terrain column as a single decorative game object.
+ * The column is one block wide and spans the TERRAIN_DEPTH - 1 blocks under the surface block.
+ * Only the surface block can ever touch the avatar, so the column has no physics and lives in
+ * a layer that does not collide with anything; it is drawn by a single renderable.
+ */
+public class TerrainColumn extends GameObject {
+
+    /**
+     * Constructs a new subsurface terrain column.
+     *
+     * @param topLeftCorner The top-left corner of the column, right under the surface block.
+     * @param renderable The renderable that draws the layers of the column.
+     */
+    public TerrainColumn(Vector2 topLeftCorner, Renderable renderable) {
+        super(topLeftCorner,
+                new Vector2(Block.SIZE, Block.SIZE * (Constants.TERRAIN_DEPTH - 1)),
+                renderable);
+        this.setTag(Constants.SUBSURFACE);
+    }
+}
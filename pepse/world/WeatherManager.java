@@ -0,0 +1,208 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.util.NoiseGenerator;
+import pepse.util.RenderablePalette;
+import pepse.world.particles.ParticleSystem;
+import pepse.world.particles.RainEmitter;
+import pepse.world.particles.SplashEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+/**
+ * Manages the clouds and the rain of the sky. The clouds drift from the left edge of the screen
+ * to the right one, and are culled as soon as they leave it. All the cloud objects are created
+ * once, in a fixed-size pool, and are respawned instead of created: at most MAX_ACTIVE_CLOUDS
+ * clouds are in the game at a time, so a dense sky costs a steady amount of CPU and memory.
+ * The cloud shapes are generated once from seeded noise and shared.
+ * The rain and its splashes on the ground are particle systems of fixed capacity: a jump starts
+ * a storm, in which every cloud rains steadily for STORM_DURATION seconds.
+ */
+public class WeatherManager {
+    /**
+     * The seed of the shape noise is kept below this bound. NoiseGenerator adds the seed to the
+     * coordinate twice before taking its integer lattice cell, which saturates for large seeds.
+     */
+    private static final int SHAPE_SEED_RANGE = 1 << 16;
+
+    /** The width of every cloud. */
+    private static final float CLOUD_WIDTH = Constants.CLOUD_COLUMNS * Block.SIZE;
+
+    /** The height of every cloud. */
+    private static final float CLOUD_HEIGHT = Constants.CLOUD_ROWS * Block.SIZE;
+
+    /** The shared looks of the clouds. */
+    private final CloudRenderable[] cloudShapes;
+
+    /** The pool of clouds that are not in the game. */
+    private final Deque<Cloud> idleClouds = new ArrayDeque<>();
+
+    /** The clouds that are in the game. */
+    private final List<Cloud> activeClouds = new ArrayList<>();
+
+    /** Emits the raindrops falling from the clouds. */
+    private final RainEmitter rainEmitter;
+
+    /** The dimensions of the game window. */
+    private final Vector2 windowDimensions;
+
+    /** The speed of a cloud crossing the screen in CLOUD_CYCLE seconds, in pixels per second. */
+    private final float baseSpeed;
+
+    /** Random number generator for the shapes, positions and speeds of the spawned clouds. */
+    private final Random random;
+
+    /** Adds a game object to the game, in a layer. */
+    private final BiConsumer<GameObject, Integer> objectAdder;
+
+    /** Removes a game object from the game, from a layer. */
+    private final BiConsumer<GameObject, Integer> objectRemover;
+
+    /** The time left until the next cloud spawns, in seconds. */
+    private float timeToNextSpawn = Constants.CLOUD_SPAWN_INTERVAL;
+
+    /** The time left until the storm ends, in seconds. */
+    private float stormTimeLeft = 0;
+
+    /**
+     * Constructs a WeatherManager, fills its pools and spreads the first clouds over the screen.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param seed The seed of the cloud shapes, positions and speeds.
+     * @param groundSampler Samples the ground under the screen, in camera coordinates. The rain
+     *                      splashes where it reaches the ground.
+     * @param objectAdder Adds a game object to the game, in a layer.
+     * @param objectRemover Removes a game object from the game, from a layer.
+     */
+    public WeatherManager(Vector2 windowDimensions,
+                          int seed,
+                          ParticleSystem.GroundSampler groundSampler,
+                          BiConsumer<GameObject, Integer> objectAdder,
+                          BiConsumer<GameObject, Integer> objectRemover) {
+        this.windowDimensions = windowDimensions;
+        this.baseSpeed = windowDimensions.x() / Constants.CLOUD_CYCLE;
+        this.random = new Random(seed);
+        this.objectAdder = objectAdder;
+        this.objectRemover = objectRemover;
+
+        NoiseGenerator shapeNoise = new NoiseGenerator(Math.floorMod(seed, SHAPE_SEED_RANGE),
+                Constants.CLOUD_SHAPE_NOISE_SCALE);
+        RenderablePalette cloudPalette = Cloud.createPalette(seed);
+        this.cloudShapes = new CloudRenderable[Constants.CLOUD_SHAPE_VARIANTS];
+        for (int i = 0; i < cloudShapes.length; i++) {
+            cloudShapes[i] = Cloud.createShape(shapeNoise, i, cloudPalette);
+        }
+
+        for (int i = 0; i < Constants.MAX_ACTIVE_CLOUDS; i++) {
+            Cloud cloud = new Cloud(Vector2.ZERO, cloudShapes[0]);
+            cloud.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            idleClouds.push(cloud);
+        }
+        ParticleSystem rainParticles = new ParticleSystem(windowDimensions,
+                Constants.RAIN_PARTICLE_CAPACITY, 0, 0, Constants.RAIN_COLOR,
+                Constants.RAIN_PARTICLE_SIZE);
+        ParticleSystem splashParticles = new ParticleSystem(windowDimensions,
+                Constants.SPLASH_PARTICLE_CAPACITY, Constants.SPLASH_GRAVITY,
+                Constants.SPLASH_FADE_RATE, Constants.RAIN_COLOR, Constants.SPLASH_PARTICLE_SIZE);
+        rainParticles.setGround(groundSampler, new SplashEmitter(splashParticles, random));
+        this.rainEmitter = new RainEmitter(rainParticles, random);
+        objectAdder.accept(rainParticles, Constants.CLOUD_LAYER);
+        objectAdder.accept(splashParticles, Constants.CLOUD_LAYER);
+
+        // Start with the clouds already spread over the screen, instead of an empty sky
+        float spacing = (windowDimensions.x() + CLOUD_WIDTH) / Constants.MAX_ACTIVE_CLOUDS;
+        for (int i = 0; i < Constants.INITIAL_CLOUDS; i++) {
+            spawnCloud(i * spacing - CLOUD_WIDTH);
+        }
+    }
+
+    /**
+     * Culls the clouds that left the screen, spawns a new cloud on the left edge every
+     * CLOUD_SPAWN_INTERVAL seconds while there are fewer than MAX_ACTIVE_CLOUDS clouds, and
+     * makes every cloud rain while there is a storm. Should be called once every frame.
+     *
+     * @param deltaTime The time elapsed since the last frame, in seconds.
+     */
+    public void update(float deltaTime) {
+        for (int i = activeClouds.size() - 1; i >= 0; i--) {
+            Cloud cloud = activeClouds.get(i);
+            if (cloud.getTopLeftCorner().x() > windowDimensions.x()) {
+                // Swap-remove, the order of the active clouds does not matter
+                activeClouds.set(i, activeClouds.getLast());
+                activeClouds.removeLast();
+                objectRemover.accept(cloud, Constants.CLOUD_LAYER);
+                idleClouds.push(cloud);
+            }
+        }
+
+        timeToNextSpawn -= deltaTime;
+        if (timeToNextSpawn <= 0) {
+            timeToNextSpawn += Constants.CLOUD_SPAWN_INTERVAL;
+            spawnCloud(-CLOUD_WIDTH);
+        }
+
+        if (stormTimeLeft > 0) {
+            stormTimeLeft -= deltaTime;
+            for (int i = 0; i < activeClouds.size(); i++) {
+                Vector2 cloudTopLeft = activeClouds.get(i).getTopLeftCorner();
+                rainEmitter.emitOver(cloudTopLeft.x() + Constants.RAIN_CLOUD_MARGIN,
+                        cloudTopLeft.x() + CLOUD_WIDTH - Constants.RAIN_CLOUD_MARGIN,
+                        cloudTopLeft.y() + CLOUD_HEIGHT - Constants.RAIN_CLOUD_MARGIN,
+                        Constants.RAIN_DROPS_PER_SECOND, deltaTime);
+            }
+        }
+    }
+
+    /**
+     * Takes a cloud from the pool and adds it to the game with a random shape, height and speed.
+     * Does nothing if all the clouds are already in the game.
+     *
+     * @param x The x-coordinate of the left edge of the cloud, in camera coordinates.
+     */
+    private void spawnCloud(float x) {
+        Cloud cloud = idleClouds.poll();
+        if (cloud == null) {
+            return;
+        }
+        float y = windowDimensions.y() * random.nextFloat(
+                Constants.CLOUD_MIN_HEIGHT_RATIO, Constants.CLOUD_MAX_HEIGHT_RATIO);
+        float speed = baseSpeed * random.nextFloat(
+                1 - Constants.CLOUD_SPEED_VARIATION, 1 + Constants.CLOUD_SPEED_VARIATION);
+        cloud.respawn(cloudShapes[random.nextInt(cloudShapes.length)], new Vector2(x, y), speed);
+        activeClouds.add(cloud);
+        objectAdder.accept(cloud, Constants.CLOUD_LAYER);
+    }
+
+    /**
+     * Starts a storm, or extends the current one: every cloud in the game pours a burst of
+     * raindrops, and keeps raining for STORM_DURATION seconds. When the rain particle system is
+     * full, no more raindrops fall until some of them reach the ground.
+     */
+    public void rain() {
+        stormTimeLeft = Constants.STORM_DURATION;
+        for (int i = 0; i < activeClouds.size(); i++) {
+            Vector2 cloudTopLeft = activeClouds.get(i).getTopLeftCorner();
+            rainEmitter.emitBurst(cloudTopLeft.x() + Constants.RAIN_CLOUD_MARGIN,
+                    cloudTopLeft.x() + CLOUD_WIDTH - Constants.RAIN_CLOUD_MARGIN,
+                    cloudTopLeft.y() + CLOUD_HEIGHT - Constants.RAIN_CLOUD_MARGIN,
+                    Constants.RAIN_BURST_DROPS);
+        }
+    }
+
+    /**
+     * Returns the number of clouds in the game.
+     *
+     * @return The number of active clouds, at most MAX_ACTIVE_CLOUDS.
+     */
+    public int getActiveCloudCount() {
+        return activeClouds.size();
+    }
+}
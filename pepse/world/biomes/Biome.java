@@ -0,0 +1,70 @@
+package pepse.world.biomes;
+
+import pepse.util.Constants;
+
+import java.awt.*;
+
+/**
+ * The biomes of the game world. A biome decides the color of the ground and how dense the trees
+ * are, and is selected from the temperature and moisture of a column.
+ */
+public enum Biome {
+    /** Temperate grassland, the original look and tree density of the world. */
+    PLAINS(Constants.BASE_GROUND_COLOR, Constants.TREE_THRESHOLD),
+    /** Wet land with dark soil and dense trees. */
+    FOREST(Constants.FOREST_GROUND_COLOR, Constants.FOREST_TREE_THRESHOLD),
+    /** Hot and dry land with sand and rare trees. */
+    DESERT(Constants.DESERT_GROUND_COLOR, Constants.DESERT_TREE_THRESHOLD);
+
+    /** The base color of the ground in this biome. */
+    private final Color groundColor;
+
+    /** The chance of a column in this biome to have a tree. */
+    private final float treeThreshold;
+
+    /**
+     * Constructs a biome.
+     *
+     * @param groundColor The base color of the ground.
+     * @param treeThreshold The chance of a column to have a tree.
+     */
+    Biome(Color groundColor, float treeThreshold) {
+        this.groundColor = groundColor;
+        this.treeThreshold = treeThreshold;
+    }
+
+    /**
+     * Returns the base color of the ground in this biome.
+     *
+     * @return The base ground color.
+     */
+    public Color getGroundColor() {
+        return groundColor;
+    }
+
+    /**
+     * Returns the chance of a column in this biome to have a tree.
+     *
+     * @return A probability between 0 and 1.
+     */
+    public float getTreeThreshold() {
+        return treeThreshold;
+    }
+
+    /**
+     * Selects the biome of a column from its climate.
+     *
+     * @param temperature The temperature of the column, around 0.
+     * @param moisture The moisture of the column, around 0.
+     * @return The biome of the column.
+     */
+    public static Biome select(double temperature, double moisture) {
+        if (temperature > Constants.DESERT_MIN_TEMPERATURE && moisture < Constants.DESERT_MAX_MOISTURE) {
+            return DESERT;
+        }
+        if (moisture > Constants.FOREST_MIN_MOISTURE) {
+            return FOREST;
+        }
+        return PLAINS;
+    }
+}
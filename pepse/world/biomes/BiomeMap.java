@@ -0,0 +1,174 @@
+package pepse.world.biomes;
+
+import pepse.util.Constants;
+import pepse.util.NoiseGenerator;
+import pepse.world.Block;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Selects the biome of every block column of the world, by combining three noise fields:
+ * - Temperature: a slow noise field, cooled down where the ground is high.
+ * - Moisture: a slow noise field sampled through a domain warp, so wet and dry regions get
+ *   irregular borders instead of following the temperature bands.
+ * - Height: the terrain ground height, shared with the terrain instead of sampled again.
+ * The fields are sampled in batches, a page of block columns at a time, and the selected biomes
+ * are kept in a bounded LRU cache of pages, so all the consumers of a column (the ground colors
+ * and the trees) share a single computation.
+ */
+public class BiomeMap {
+    /**
+     * Functional interface for reading the ground heights of block columns.
+     */
+    @FunctionalInterface
+    public interface HeightSampler {
+        /**
+         * Returns the ground heights of all the block columns in a range.
+         *
+         * @param minX The block-aligned x-coordinate of the first column.
+         * @param maxX The block-aligned x-coordinate of the last column.
+         * @return The ground height of each column, from left to right.
+         */
+        float[] heightsInRange(int minX, int maxX);
+    }
+
+    /** Mixed into the world seed, so every noise field gets a different seed. */
+    private static final int TEMPERATURE_SALT = 0x5EED7E39,
+            MOISTURE_SALT = 0x3015709E,
+            WARP_SALT = 0x0DA3A1B5;
+
+    /**
+     * The seeds of the noise fields are kept below this bound. NoiseGenerator adds the seed to
+     * the coordinate twice before taking its integer lattice cell, which saturates for large
+     * seeds and makes the whole field repeat every wavelength.
+     */
+    private static final int FIELD_SEED_RANGE = 1 << 16;
+
+    /** The noise field of the temperature. */
+    private final NoiseGenerator temperatureNoise;
+
+    /** The noise field of the moisture. */
+    private final NoiseGenerator moistureNoise;
+
+    /** The noise field that warps the moisture coordinates. */
+    private final NoiseGenerator warpNoise;
+
+    /** Reads the terrain ground heights. */
+    private final HeightSampler heightSampler;
+
+    /** The ground height at sea level: higher ground is colder. */
+    private final float baseGroundHeight;
+
+    /**
+     * The biome cache: pages of consecutive block column biomes, keyed by page index, in access
+     * order so the least recently used page is evicted first. The pages line up with the pages
+     * of the terrain height-map cache. Guarded by this.
+     */
+    private final Map<Integer, Biome[]> biomePages =
+            new LinkedHashMap<>(Constants.HEIGHT_CACHE_PAGES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Biome[]> eldest) {
+                    return size() > Constants.HEIGHT_CACHE_PAGES;
+                }
+            };
+
+    /**
+     * Constructs a BiomeMap.
+     *
+     * @param seed The seed of the world. The same seed always gives the same biomes.
+     * @param baseGroundHeight The ground height at sea level.
+     * @param heightSampler Reads the terrain ground heights of block columns.
+     */
+    public BiomeMap(int seed, float baseGroundHeight, HeightSampler heightSampler) {
+        // Whole seeds keep the noise fields on the fast 1-D noise path
+        this.temperatureNoise = new NoiseGenerator(fieldSeed(seed, TEMPERATURE_SALT),
+                Constants.BIOME_NOISE_SCALE);
+        this.moistureNoise = new NoiseGenerator(fieldSeed(seed, MOISTURE_SALT),
+                Constants.BIOME_NOISE_SCALE);
+        this.warpNoise = new NoiseGenerator(fieldSeed(seed, WARP_SALT), Constants.BIOME_WARP_SCALE);
+        this.baseGroundHeight = baseGroundHeight;
+        this.heightSampler = heightSampler;
+    }
+
+    /**
+     * Derives the seed of a noise field from the world seed.
+     *
+     * @param seed The seed of the world.
+     * @param salt The salt of the noise field.
+     * @return A whole, non-negative seed below FIELD_SEED_RANGE.
+     */
+    private static int fieldSeed(int seed, int salt) {
+        return Math.floorMod(seed ^ salt, FIELD_SEED_RANGE);
+    }
+
+    /**
+     * Returns the biome of the block column containing the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The biome at x.
+     */
+    public Biome biomeAt(float x) {
+        int column = Math.floorDiv((int) Math.floor(x), Block.SIZE);
+        Biome[] page = biomePage(Math.floorDiv(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS));
+        return page[Math.floorMod(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS)];
+    }
+
+    /**
+     * Returns the biomes of all the block columns in the specified x-coordinate range, copied
+     * from the biome cache page by page.
+     *
+     * @param minX The minimum x-coordinate of the range, rounded down to a block column.
+     * @param maxX The maximum x-coordinate of the range, rounded up to a block column.
+     * @return The biome of each block column in the range, from left to right.
+     */
+    public Biome[] biomesInRange(int minX, int maxX) {
+        int firstColumn = Math.floorDiv(minX, Block.SIZE);
+        int lastColumn = -Math.floorDiv(-maxX, Block.SIZE);
+
+        Biome[] biomes = new Biome[lastColumn - firstColumn + 1];
+        int filled = 0;
+        while (filled < biomes.length) {
+            int column = firstColumn + filled;
+            int offset = Math.floorMod(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS);
+            Biome[] page = biomePage(Math.floorDiv(column, Constants.HEIGHT_CACHE_PAGE_COLUMNS));
+            int count = Math.min(page.length - offset, biomes.length - filled);
+            System.arraycopy(page, offset, biomes, filled, count);
+            filled += count;
+        }
+        return biomes;
+    }
+
+    /**
+     * Returns a page of the biome cache, sampling all of its fields in one batch on a miss.
+     * Synchronized, since chunks are generated on a background thread.
+     *
+     * @param pageIndex The index of the page.
+     * @return The biomes of the HEIGHT_CACHE_PAGE_COLUMNS block columns of the page.
+     */
+    private synchronized Biome[] biomePage(int pageIndex) {
+        Biome[] page = biomePages.get(pageIndex);
+        if (page != null) {
+            return page;
+        }
+
+        int columns = Constants.HEIGHT_CACHE_PAGE_COLUMNS;
+        int pageStartX = pageIndex * columns * Block.SIZE;
+        float[] heights = heightSampler.heightsInRange(pageStartX, pageStartX + (columns - 1) * Block.SIZE);
+        double[] temperatures = new double[columns];
+        double[] warps = new double[columns];
+        temperatureNoise.noise1D(pageStartX, Block.SIZE, 1, temperatures);
+        warpNoise.noise1D(pageStartX, Block.SIZE, Constants.BIOME_WARP_STRENGTH, warps);
+
+        page = new Biome[columns];
+        for (int i = 0; i < columns; i++) {
+            double x = pageStartX + i * Block.SIZE;
+            double elevation = (baseGroundHeight - heights[i]) / Constants.NOISE_FACTOR;
+            double temperature = temperatures[i] - elevation * Constants.BIOME_ELEVATION_COOLING;
+            double moisture = moistureNoise.noise1D(x + warps[i], 1);
+            page[i] = Biome.select(temperature, moisture);
+        }
+        biomePages.put(pageIndex, page);
+        return page;
+    }
+}
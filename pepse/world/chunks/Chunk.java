@@ -0,0 +1,58 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a fixed-width slice of the game world.
+ * A chunk owns every game object that was created for its X range, grouped by the layer
+ * the object lives in, so it can be unloaded without scanning whole layers.
+ */
+public class Chunk {
+    /** The index of the chunk, counted in chunk widths from x = 0. */
+    private final int index;
+
+    /** The game objects owned by this chunk, grouped by their layer. */
+    private final Map<Integer, List<GameObject>> objectsByLayer = new HashMap<>();
+
+    /**
+     * Constructs an empty chunk.
+     *
+     * @param index The index of the chunk in the world.
+     */
+    public Chunk(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Registers a game object as owned by this chunk.
+     *
+     * @param gameObject The game object to own.
+     * @param layer The layer the game object should be added to.
+     */
+    public void addObject(GameObject gameObject, int layer) {
+        objectsByLayer.computeIfAbsent(layer, key -> new ArrayList<>()).add(gameObject);
+    }
+
+    /**
+     * Returns the game objects owned by this chunk, grouped by their layer.
+     *
+     * @return A map from a layer to the objects of this chunk in that layer.
+     */
+    public Map<Integer, List<GameObject>> getObjectsByLayer() {
+        return objectsByLayer;
+    }
+}
@@ -0,0 +1,86 @@
+package pepse.world.chunks;
+
+import pepse.world.biomes.Biome;
+import pepse.world.trees.TreeLayout;
+
+import java.util.List;
+
+/**
+ * The precomputed content of a chunk: the ground height and biome of every column and the
+ * layouts of the trees in it. Holds no game objects.
+ */
+public class ChunkData {
+    /** The index of the chunk. */
+    private final int index;
+    /** The x-coordinate of the first column of the chunk. */
+    private final int minX;
+    /** The ground height of each column of the chunk, starting at minX. */
+    private final float[] groundHeights;
+    /** The biome of each column of the chunk, starting at minX. */
+    private final Biome[] biomes;
+    /** The layouts of the trees of the chunk. */
+    private final List<TreeLayout> treeLayouts;
+
+    /**
+     * Constructs a ChunkData.
+     *
+     * @param index The index of the chunk.
+     * @param minX The x-coordinate of the first column of the chunk.
+     * @param groundHeights The ground height of each column of the chunk, starting at minX.
+     * @param biomes The biome of each column of the chunk, starting at minX.
+     * @param treeLayouts The layouts of the trees of the chunk.
+     */
+    public ChunkData(int index, int minX, float[] groundHeights, Biome[] biomes,
+                     List<TreeLayout> treeLayouts) {
+        this.index = index;
+        this.minX = minX;
+        this.groundHeights = groundHeights;
+        this.biomes = biomes;
+        this.treeLayouts = treeLayouts;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the x-coordinate of the first column of the chunk.
+     *
+     * @return The x-coordinate where the chunk starts.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Returns the ground height of each column of the chunk.
+     *
+     * @return The ground heights, starting at the first column.
+     */
+    public float[] getGroundHeights() {
+        return groundHeights;
+    }
+
+    /**
+     * Returns the biome of each column of the chunk.
+     *
+     * @return The biomes, starting at the first column.
+     */
+    public Biome[] getBiomes() {
+        return biomes;
+    }
+
+    /**
+     * Returns the layouts of the trees of the chunk.
+     *
+     * @return The tree layouts.
+     */
+    public List<TreeLayout> getTreeLayouts() {
+        return treeLayouts;
+    }
+}
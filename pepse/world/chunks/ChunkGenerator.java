@@ -0,0 +1,168 @@
+package pepse.world.chunks;
+
+import pepse.util.ParallelTasks;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.biomes.Biome;
+import pepse.world.trees.Flora;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Computes chunk data (ground heights, biomes and tree layouts) on a background thread.
+ * Finished chunks are published through a lock-free queue, which the game thread drains with a
+ * per-frame budget. A chunk that is needed before it was generated in the background is
+ * generated on the spot, and since generation is deterministic both results are identical: the
+ * background result is then dropped when it is drained.
+ * All the methods except generate must be called from the game thread.
+ */
+public class ChunkGenerator {
+    /** The name of the background generation thread. */
+    private static final String GENERATOR_THREAD_NAME = "chunk-generator";
+
+    /** The terrain, used to compute the ground heights. */
+    private final Terrain terrain;
+
+    /** The flora, used to compute the tree layouts. */
+    private final Flora flora;
+
+    /** The background thread that generates the requested chunks. */
+    private final ExecutorService executor;
+
+    /** Chunks finished by the background thread, waiting to be drained by the game thread. */
+    private final Queue<ChunkData> finishedChunks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The indices of the chunks requested from the background thread, and not drained or taken
+     * yet. A drained chunk that is not in here was already served, and is dropped.
+     */
+    private final Set<Integer> pendingChunks = new HashSet<>();
+
+    /** Drained chunks that are ready to be loaded, keyed by chunk index. */
+    private final Map<Integer, ChunkData> readyChunks = new HashMap<>();
+
+    /** The range of chunk indices worth keeping when they are ready. */
+    private int keepFirst = Integer.MIN_VALUE;
+    private int keepLast = Integer.MAX_VALUE;
+
+    /**
+     * Constructs a ChunkGenerator, and starts its background thread.
+     *
+     * @param terrain The terrain, used to compute the ground heights.
+     * @param flora The flora, used to compute the tree layouts.
+     */
+    public ChunkGenerator(Terrain terrain, Flora flora) {
+        this.terrain = terrain;
+        this.flora = flora;
+        this.executor = ParallelTasks.newDaemonPool(GENERATOR_THREAD_NAME, 1);
+    }
+
+    /**
+     * Computes the data of a chunk. Safe to call from any thread.
+     *
+     * @param index The index of the chunk.
+     * @return The data of the chunk.
+     */
+    public ChunkData generate(int index) {
+        int minX = ChunkManager.chunkStartX(index);
+        // The heights and biomes are computed once, and shared by the terrain and the flora of the chunk
+        int maxX = minX + ChunkManager.CHUNK_WIDTH - Block.SIZE;
+        float[] groundHeights = terrain.heightsInRange(minX, maxX);
+        Biome[] biomes = terrain.biomesInRange(minX, maxX);
+        return new ChunkData(index, minX, groundHeights, biomes,
+                flora.layoutsInRange(minX, groundHeights, biomes));
+    }
+
+    /**
+     * Generates a range of chunks on a worker pool and waits for them, so they are ready to be
+     * taken right away. Chunks that are already ready are not generated again.
+     *
+     * @param first The index of the first chunk to generate.
+     * @param last The index of the last chunk to generate.
+     * @param pool The worker pool to generate the chunks on.
+     */
+    public void pregenerate(int first, int last, ExecutorService pool) {
+        List<Callable<ChunkData>> tasks = new ArrayList<>();
+        for (int index = first; index <= last; index++) {
+            int chunkIndex = index;
+            if (!readyChunks.containsKey(chunkIndex)) {
+                tasks.add(() -> generate(chunkIndex));
+            }
+        }
+        for (ChunkData chunkData : ParallelTasks.invokeAll(pool, tasks)) {
+            readyChunks.put(chunkData.getIndex(), chunkData);
+        }
+    }
+
+    /**
+     * Requests a chunk to be generated on the background thread, unless it is already
+     * requested or ready.
+     *
+     * @param index The index of the chunk.
+     */
+    public void request(int index) {
+        if (pendingChunks.contains(index) || readyChunks.containsKey(index)) {
+            return;
+        }
+        pendingChunks.add(index);
+        executor.execute(() -> finishedChunks.add(generate(index)));
+    }
+
+    /**
+     * Moves up to budget finished chunks from the background thread into the ready chunks.
+     *
+     * @param budget The maximal number of chunks to drain.
+     */
+    public void drain(int budget) {
+        for (int i = 0; i < budget; i++) {
+            ChunkData chunkData = finishedChunks.poll();
+            if (chunkData == null) {
+                return;
+            }
+            boolean stillWanted = pendingChunks.remove(chunkData.getIndex());
+            if (stillWanted && chunkData.getIndex() >= keepFirst &&
+                    chunkData.getIndex() <= keepLast) {
+                readyChunks.put(chunkData.getIndex(), chunkData);
+            }
+        }
+    }
+
+    /**
+     * Returns the data of a chunk, taking it from the ready chunks if it was generated in the
+     * background, or generating it on the spot otherwise. A background request for the chunk
+     * that is still running is then no longer wanted.
+     *
+     * @param index The index of the chunk.
+     * @return The data of the chunk.
+     */
+    public ChunkData take(int index) {
+        ChunkData chunkData = readyChunks.remove(index);
+        if (chunkData != null) {
+            return chunkData;
+        }
+        pendingChunks.remove(index);
+        return generate(index);
+    }
+
+    /**
+     * Drops the ready chunks outside the given range, and keeps dropping chunks outside
+     * of it when they are drained.
+     *
+     * @param first The first chunk index worth keeping.
+     * @param last The last chunk index worth keeping.
+     */
+    public void discardOutside(int first, int last) {
+        keepFirst = first;
+        keepLast = last;
+        readyChunks.keySet().removeIf(index -> index < first || index > last);
+    }
+}
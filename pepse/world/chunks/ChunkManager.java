@@ -0,0 +1,217 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import pepse.util.Constants;
+import pepse.world.Block;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Streams the endless world in fixed-width chunks around a moving center point (the avatar).
+ * Keeps a registry of the loaded chunks, and loads or unloads chunks only when the center
+ * crosses a chunk boundary. Unloading a chunk removes exactly the objects it owns.
+ * Chunk data is generated in the background ahead of the center, in its direction of travel.
+ */
+public class ChunkManager {
+    /** The width of a single chunk, in pixels. */
+    public static final int CHUNK_WIDTH = Constants.CHUNK_SIZE_IN_BLOCKS * Block.SIZE;
+
+    /**
+     * Functional interface for creating the content of a chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkLoader {
+        /**
+         * Creates a chunk and all the game objects it owns, from its precomputed data.
+         *
+         * @param chunkData The precomputed data of the chunk.
+         * @return The created chunk.
+         */
+        Chunk load(ChunkData chunkData);
+    }
+
+    /** The registry of the currently loaded chunks, keyed by chunk index. */
+    private final Map<Integer, Chunk> loadedChunks = new HashMap<>();
+
+    /** Computes the data of the chunks, in the background when possible. */
+    private final ChunkGenerator chunkGenerator;
+
+    /** Creates the content of chunks that enter the loaded window. */
+    private final ChunkLoader chunkLoader;
+
+    /** Notified with the index of every chunk that is unloaded. */
+    private final IntConsumer chunkUnloadListener;
+
+    /** Adds a game object to the game in the given layer. */
+    private final BiConsumer<GameObject, Integer> objectAdder;
+
+    /** Removes a game object from the game, from the given layer. */
+    private final BiConsumer<GameObject, Integer> objectRemover;
+
+    /** The number of chunks kept loaded on each side of the center chunk. */
+    private final int chunksAroundCenter;
+
+    /** The index of the chunk the center point was in at the last update. */
+    private int centerChunk;
+
+    /** Whether the chunks around the center were loaded at least once. */
+    private boolean initialized = false;
+
+    /**
+     * Constructs a ChunkManager.
+     *
+     * @param windowWidth The width of the game window, used to decide how many chunks stay loaded.
+     * @param chunkGenerator Computes the data of the chunks.
+     * @param chunkLoader Creates the content of a chunk.
+     * @param chunkUnloadListener Notified with the index of every chunk that is unloaded, for
+     *                            content that is owned outside of the chunk (like trees).
+     * @param objectAdder Adds a game object to the game in a given layer.
+     * @param objectRemover Removes a game object from a given layer of the game.
+     */
+    public ChunkManager(float windowWidth,
+                        ChunkGenerator chunkGenerator,
+                        ChunkLoader chunkLoader,
+                        IntConsumer chunkUnloadListener,
+                        BiConsumer<GameObject, Integer> objectAdder,
+                        BiConsumer<GameObject, Integer> objectRemover) {
+        this.chunkGenerator = chunkGenerator;
+        this.chunkLoader = chunkLoader;
+        this.chunkUnloadListener = chunkUnloadListener;
+        this.objectAdder = objectAdder;
+        this.objectRemover = objectRemover;
+        this.chunksAroundCenter = (int) Math.ceil(
+                (windowWidth * Constants.HALF + Constants.VISIBLE_WORLD_MARGIN) / CHUNK_WIDTH);
+    }
+
+    /**
+     * Returns the index of the chunk that contains the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the chunk containing x.
+     */
+    public static int chunkIndexAt(float x) {
+        return Math.floorDiv((int) Math.floor(x), CHUNK_WIDTH);
+    }
+
+    /**
+     * Returns the first x-coordinate of the chunk with the given index.
+     *
+     * @param index The chunk index.
+     * @return The x-coordinate where the chunk starts.
+     */
+    public static int chunkStartX(int index) {
+        return index * CHUNK_WIDTH;
+    }
+
+    /**
+     * Generates the data of the chunks around the center point, and of the chunks prefetched
+     * after them, on a worker pool. Then loads the chunks around the center point.
+     * Used at startup, so the first frames do not wait for chunk generation.
+     *
+     * @param centerX The x-coordinate of the center point (the avatar).
+     * @param pool The worker pool to generate the chunks on.
+     */
+    public void preload(float centerX, ExecutorService pool) {
+        int center = chunkIndexAt(centerX);
+        chunkGenerator.pregenerate(center - chunksAroundCenter - Constants.CHUNKS_PREFETCHED,
+                center + chunksAroundCenter + Constants.CHUNKS_PREFETCHED, pool);
+        update(centerX);
+    }
+
+    /**
+     * Updates the loaded chunks according to the center point. Takes the chunks finished in the
+     * background, and otherwise does nothing unless the center moved into a different chunk
+     * since the last update.
+     *
+     * @param centerX The x-coordinate of the center point (the avatar).
+     */
+    public void update(float centerX) {
+        chunkGenerator.drain(Constants.CHUNKS_DRAINED_PER_FRAME);
+
+        int newCenterChunk = chunkIndexAt(centerX);
+        if (initialized && newCenterChunk == centerChunk) {
+            return;
+        }
+        int direction = initialized ? Integer.signum(newCenterChunk - centerChunk) : 0;
+        centerChunk = newCenterChunk;
+        initialized = true;
+
+        int firstChunk = centerChunk - chunksAroundCenter;
+        int lastChunk = centerChunk + chunksAroundCenter;
+
+        // Unload chunks that left the window
+        Iterator<Map.Entry<Integer, Chunk>> iterator = loadedChunks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Chunk> entry = iterator.next();
+            if (entry.getKey() < firstChunk || entry.getKey() > lastChunk) {
+                unloadChunk(entry.getValue());
+                iterator.remove();
+            }
+        }
+
+        // Load chunks that entered the window
+        for (int index = firstChunk; index <= lastChunk; index++) {
+            if (!loadedChunks.containsKey(index)) {
+                loadChunk(index);
+            }
+        }
+
+        prefetch(direction, firstChunk, lastChunk);
+    }
+
+    /**
+     * Requests the chunks right after the loaded window, in the direction of travel, to be
+     * generated in the background (both sides when there is no direction yet).
+     *
+     * @param direction The direction of travel: 1 for right, -1 for left, 0 for unknown.
+     * @param firstChunk The first loaded chunk.
+     * @param lastChunk The last loaded chunk.
+     */
+    private void prefetch(int direction, int firstChunk, int lastChunk) {
+        chunkGenerator.discardOutside(firstChunk - Constants.CHUNKS_PREFETCHED,
+                lastChunk + Constants.CHUNKS_PREFETCHED);
+        for (int i = 1; i <= Constants.CHUNKS_PREFETCHED; i++) {
+            if (direction >= 0) {
+                chunkGenerator.request(lastChunk + i);
+            }
+            if (direction <= 0) {
+                chunkGenerator.request(firstChunk - i);
+            }
+        }
+    }
+
+    /**
+     * Creates a chunk, adds all of its objects to the game and registers it.
+     *
+     * @param index The index of the chunk to load.
+     */
+    private void loadChunk(int index) {
+        Chunk chunk = chunkLoader.load(chunkGenerator.take(index));
+        for (Map.Entry<Integer, List<GameObject>> entry : chunk.getObjectsByLayer().entrySet()) {
+            for (GameObject gameObject : entry.getValue()) {
+                objectAdder.accept(gameObject, entry.getKey());
+            }
+        }
+        loadedChunks.put(index, chunk);
+    }
+
+    /**
+     * Removes all the objects owned by a chunk from the game.
+     *
+     * @param chunk The chunk to unload.
+     */
+    private void unloadChunk(Chunk chunk) {
+        for (Map.Entry<Integer, List<GameObject>> entry : chunk.getObjectsByLayer().entrySet()) {
+            for (GameObject gameObject : entry.getValue()) {
+                objectRemover.accept(gameObject, entry.getKey());
+            }
+        }
+        chunkUnloadListener.accept(chunk.getIndex());
+    }
+}
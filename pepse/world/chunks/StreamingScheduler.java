@@ -0,0 +1,210 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+
+/**
+ * Spreads the addition and removal of streamed game objects over several frames.
+ * Every frame at most a fixed number of objects is added to or removed from the game, and the
+ * rest waits for the next frames. Additions closest to the focus point (the avatar) go first,
+ * so nothing visible pops in late. Half of the budget is kept for the removals while there are
+ * any, so the removals are never starved by a steady stream of additions, and whatever one kind
+ * leaves unused goes to the other.
+ */
+public class StreamingScheduler {
+
+    /**
+     * A game object waiting to be added to or removed from a layer.
+     */
+    private static class PendingObject {
+        /** The waiting game object. */
+        private final GameObject gameObject;
+        /** The layer of the game object. */
+        private final int layer;
+        /** The distance of the object from the focus point when it was scheduled. */
+        private final float distance;
+        /** Whether the operation was cancelled before it was applied. */
+        private boolean cancelled = false;
+
+        /**
+         * Constructs a PendingObject.
+         *
+         * @param gameObject The waiting game object.
+         * @param layer The layer of the game object.
+         * @param distance The distance of the object from the focus point.
+         */
+        private PendingObject(GameObject gameObject, int layer, float distance) {
+            this.gameObject = gameObject;
+            this.layer = layer;
+            this.distance = distance;
+        }
+    }
+
+    /** Adds a game object to the game in the given layer. */
+    private final BiConsumer<GameObject, Integer> objectAdder;
+
+    /** Removes a game object from the game, from the given layer. */
+    private final BiConsumer<GameObject, Integer> objectRemover;
+
+    /** The maximal number of objects added or removed in a single frame. */
+    private final int objectsPerFrame;
+
+    /** Objects waiting to be added, closest to the focus point first. */
+    private final PriorityQueue<PendingObject> pendingAdditions =
+            new PriorityQueue<>(Comparator.comparingDouble(pending -> pending.distance));
+
+    /** The waiting additions by their game object, so an addition can be cancelled. */
+    private final Map<GameObject, PendingObject> pendingAdditionsByObject = new HashMap<>();
+
+    /** Objects waiting to be removed, in the order they were scheduled. */
+    private final Queue<PendingObject> pendingRemovals = new ArrayDeque<>();
+
+    /** The x-coordinate of the focus point (the avatar). */
+    private float focusX;
+
+    /** Whether the odd object of an odd budget goes to the removals this frame, it alternates. */
+    private boolean oddObjectToRemovals = false;
+
+    /**
+     * Constructs a StreamingScheduler.
+     *
+     * @param objectsPerFrame The maximal number of objects added or removed in a single frame,
+     *                        at least 1.
+     * @param objectAdder Adds a game object to the game in a given layer.
+     * @param objectRemover Removes a game object from a given layer of the game.
+     * @throws IllegalArgumentException If objectsPerFrame is smaller than 1.
+     */
+    public StreamingScheduler(int objectsPerFrame,
+                              BiConsumer<GameObject, Integer> objectAdder,
+                              BiConsumer<GameObject, Integer> objectRemover) {
+        if (objectsPerFrame < 1) {
+            throw new IllegalArgumentException("objectsPerFrame must be at least 1: " + objectsPerFrame);
+        }
+        this.objectsPerFrame = objectsPerFrame;
+        this.objectAdder = objectAdder;
+        this.objectRemover = objectRemover;
+    }
+
+    /**
+     * Sets the focus point, used to prioritize the additions scheduled from now on.
+     *
+     * @param focusX The x-coordinate of the focus point (the avatar).
+     */
+    public void setFocus(float focusX) {
+        this.focusX = focusX;
+    }
+
+    /**
+     * Schedules a game object to be added to the game.
+     *
+     * @param gameObject The game object to add.
+     * @param layer The layer to add the game object to.
+     */
+    public void add(GameObject gameObject, int layer) {
+        float distance = Math.abs(gameObject.getCenter().x() - focusX);
+        PendingObject pending = new PendingObject(gameObject, layer, distance);
+        pendingAdditions.add(pending);
+        pendingAdditionsByObject.put(gameObject, pending);
+    }
+
+    /**
+     * Schedules a game object to be removed from the game. If the object was not added yet,
+     * its addition is cancelled instead.
+     *
+     * @param gameObject The game object to remove.
+     * @param layer The layer to remove the game object from.
+     */
+    public void remove(GameObject gameObject, int layer) {
+        PendingObject pendingAddition = pendingAdditionsByObject.remove(gameObject);
+        if (pendingAddition != null) {
+            pendingAddition.cancelled = true;
+            return;
+        }
+        pendingRemovals.add(new PendingObject(gameObject, layer, 0));
+    }
+
+    /**
+     * Applies right away the waiting removals of the objects that overlap a range, so the objects
+     * of a chunk that is loaded again never show next to their own copies waiting for removal.
+     *
+     * @param minX The minimum x-coordinate of the range.
+     * @param maxX The maximum x-coordinate of the range.
+     */
+    public void completeRemovalsInRange(float minX, float maxX) {
+        Iterator<PendingObject> iterator = pendingRemovals.iterator();
+        while (iterator.hasNext()) {
+            PendingObject pending = iterator.next();
+            float objectMinX = pending.gameObject.getTopLeftCorner().x();
+            float objectMaxX = objectMinX + pending.gameObject.getDimensions().x();
+            if (objectMaxX >= minX && objectMinX <= maxX) {
+                iterator.remove();
+                objectRemover.accept(pending.gameObject, pending.layer);
+            }
+        }
+    }
+
+    /**
+     * Applies all the waiting additions and removals, regardless of the per-frame budget.
+     * Used before the first frame, when there is no frame to stutter.
+     */
+    public void flush() {
+        applyRemovals(Integer.MAX_VALUE);
+        applyAdditions(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Applies the waiting additions and removals, up to the per-frame budget.
+     * Should be called once every frame.
+     */
+    public void update() {
+        int removalShare = objectsPerFrame / 2;
+        if (objectsPerFrame % 2 != 0) {
+            oddObjectToRemovals = !oddObjectToRemovals;
+            if (oddObjectToRemovals) {
+                removalShare++;
+            }
+        }
+        removalShare = Math.min(removalShare, pendingRemovals.size());
+        int added = applyAdditions(objectsPerFrame - removalShare);
+        applyRemovals(objectsPerFrame - added);
+    }
+
+    /**
+     * Applies the waiting additions closest to the focus point.
+     *
+     * @param budget The maximal number of objects to add.
+     * @return The number of objects added.
+     */
+    private int applyAdditions(int budget) {
+        int added = 0;
+        while (added < budget && !pendingAdditions.isEmpty()) {
+            PendingObject pending = pendingAdditions.poll();
+            if (!pending.cancelled) {
+                pendingAdditionsByObject.remove(pending.gameObject);
+                objectAdder.accept(pending.gameObject, pending.layer);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Applies the waiting removals, in the order they were scheduled.
+     *
+     * @param budget The maximal number of objects to remove.
+     */
+    private void applyRemovals(int budget) {
+        for (int removed = 0; removed < budget && !pendingRemovals.isEmpty(); removed++) {
+            PendingObject pending = pendingRemovals.poll();
+            objectRemover.accept(pending.gameObject, pending.layer);
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package pepse.world.chunks;
+
+import pepse.util.IntObjectMap;
+import pepse.util.ParallelTasks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the changes the player made to the procedurally generated world, chunk by chunk, so a
+ * streamed chunk can be generated again and then patched with its small delta, instead of being
+ * kept whole. Today the only change is a consumed fruit, kept with its regrowth deadline.
+ * The deltas are kept in memory in a primitive int-keyed map, by chunk index, and can be flushed
+ * to a file. The file starts with the world seed, so the next game can generate the same world
+ * (see readSeed), and it is only loaded back into a world with the same seed, since the deltas
+ * are meaningless for any other world.
+ * The deadlines are kept on the caller's clock, and are written to the file as the time left
+ * until them, so they can be loaded into a clock that starts over.
+ * A flush copies the deltas into a snapshot, which is written to a temporary file that then
+ * atomically replaces the file, so a crash in the middle of a write never damages the file.
+ * Synchronized, so it can be flushed from a background thread and from a shutdown hook.
+ */
+public class WorldDeltaStore {
+    /**
+     * Functional interface for visiting the consumed fruits of the store.
+     */
+    @FunctionalInterface
+    public interface ConsumedFruitVisitor {
+        /**
+         * Visits a consumed fruit.
+         *
+         * @param chunkIndex The index of the chunk of the fruit.
+         * @param fruitKey The stable key of the fruit.
+         * @param deadline The regrowth deadline of the fruit, on the store's clock.
+         */
+        void visit(int chunkIndex, long fruitKey, double deadline);
+    }
+
+    /** Marks the file as a world delta file: "PEPS". */
+    private static final int FILE_MAGIC = 0x50455053;
+
+    /** The version of the file layout. */
+    private static final int FILE_VERSION = 1;
+
+    /** The size of the header: magic, version, seed and chunk count. */
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    /** The size of the header of a chunk: chunk index and fruit count. */
+    private static final int CHUNK_HEADER_BYTES = 2 * Integer.BYTES;
+
+    /** The size of a consumed fruit: key and time left until the deadline. */
+    private static final int FRUIT_BYTES = Long.BYTES + Double.BYTES;
+
+    /** The suffix of the temporary file a flush writes before replacing the file. */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /** The name of the background thread writing the periodic flushes. */
+    private static final String WRITER_THREAD_NAME = "world-delta-writer";
+
+    /**
+     * The deltas as they were when a flush started, ready to be written to the file.
+     *
+     * @param number The number of the snapshot, later snapshots have larger numbers.
+     * @param bytes The content of the file.
+     */
+    private record Snapshot(long number, ByteBuffer bytes) {
+    }
+
+    /**
+     * The consumed fruits of a single chunk, in parallel arrays. Chunks hold a handful of fruits,
+     * so the fruits are found by a linear scan.
+     */
+    private static class ChunkDelta {
+        /** The initial capacity of the arrays. */
+        private static final int INITIAL_CAPACITY = 4;
+
+        /** The stable keys of the consumed fruits. */
+        private long[] fruitKeys = new long[INITIAL_CAPACITY];
+
+        /** The regrowth deadlines of the consumed fruits. */
+        private double[] deadlines = new double[INITIAL_CAPACITY];
+
+        /** The number of consumed fruits. */
+        private int size = 0;
+
+        /**
+         * Returns the position of a fruit in the arrays.
+         *
+         * @param fruitKey The stable key of the fruit.
+         * @return The index of the fruit, or -1 if it is not consumed.
+         */
+        private int indexOf(long fruitKey) {
+            for (int i = 0; i < size; i++) {
+                if (fruitKeys[i] == fruitKey) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Records a consumed fruit, or updates its deadline.
+         *
+         * @param fruitKey The stable key of the fruit.
+         * @param deadline The regrowth deadline of the fruit.
+         */
+        private void put(long fruitKey, double deadline) {
+            int index = indexOf(fruitKey);
+            if (index < 0) {
+                if (size == fruitKeys.length) {
+                    fruitKeys = Arrays.copyOf(fruitKeys, size * 2);
+                    deadlines = Arrays.copyOf(deadlines, size * 2);
+                }
+                index = size++;
+                fruitKeys[index] = fruitKey;
+            }
+            deadlines[index] = deadline;
+        }
+
+        /**
+         * Forgets a consumed fruit, by moving the last fruit into its place.
+         *
+         * @param fruitKey The stable key of the fruit.
+         */
+        private void remove(long fruitKey) {
+            int index = indexOf(fruitKey);
+            if (index >= 0) {
+                size--;
+                fruitKeys[index] = fruitKeys[size];
+                deadlines[index] = deadlines[size];
+            }
+        }
+    }
+
+    /** The seed of the world the deltas belong to. */
+    private final int seed;
+
+    /** The file the deltas are flushed to. */
+    private final Path file;
+
+    /** The deltas of the changed chunks, by chunk index. Chunks with no changes are not kept. */
+    private final IntObjectMap<ChunkDelta> chunkDeltas = new IntObjectMap<>();
+
+    /** The background thread that writes the snapshots of flushInBackground. */
+    private final ExecutorService writer = ParallelTasks.newDaemonPool(WRITER_THREAD_NAME, 1);
+
+    /** The last write started by flushInBackground, or null if its outcome was already checked. */
+    private Future<?> lastBackgroundWrite = null;
+
+    /** Held while a snapshot is written, so the writes of different threads never interleave. */
+    private final Object writeLock = new Object();
+
+    /** The number of the last snapshot taken. */
+    private long lastSnapshotNumber = 0;
+
+    /** The number of the last snapshot written, guarded by writeLock. */
+    private long lastWrittenNumber = 0;
+
+    /**
+     * Constructs a WorldDeltaStore, loading the deltas of the file if it belongs to the same world.
+     * Loaded deadlines are on a clock that starts at 0.
+     *
+     * @param seed The seed of the world.
+     * @param file The file the deltas are flushed to.
+     * @throws UncheckedIOException If the file exists but cannot be read.
+     */
+    public WorldDeltaStore(int seed, Path file) {
+        this.seed = seed;
+        this.file = file;
+        if (Files.isRegularFile(file)) {
+            load();
+        }
+    }
+
+    /**
+     * Reads the world seed from the header of a delta file, so a game can continue the world of
+     * the previous one.
+     *
+     * @param file The delta file.
+     * @param newWorldSeed The seed to use if there is no delta file, or it cannot be read.
+     * @return The seed of the world of the file, or newWorldSeed.
+     */
+    public static int readSeed(Path file, int newWorldSeed) {
+        if (!Files.isRegularFile(file)) {
+            return newWorldSeed;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is full or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != FILE_MAGIC ||
+                    header.getInt() != FILE_VERSION) {
+                return newWorldSeed;
+            }
+            return header.getInt();
+        } catch (IOException e) {
+            return newWorldSeed;
+        }
+    }
+
+    /**
+     * Records a consumed fruit of a chunk, or updates its regrowth deadline.
+     *
+     * @param chunkIndex The index of the chunk of the fruit.
+     * @param fruitKey The stable key of the fruit.
+     * @param deadline The regrowth deadline of the fruit, on the caller's clock.
+     */
+    public synchronized void recordConsumed(int chunkIndex, long fruitKey, double deadline) {
+        ChunkDelta delta = chunkDeltas.get(chunkIndex);
+        if (delta == null) {
+            delta = new ChunkDelta();
+            chunkDeltas.put(chunkIndex, delta);
+        }
+        delta.put(fruitKey, deadline);
+    }
+
+    /**
+     * Forgets a consumed fruit of a chunk, once it regrew.
+     *
+     * @param chunkIndex The index of the chunk of the fruit.
+     * @param fruitKey The stable key of the fruit.
+     */
+    public synchronized void clearConsumed(int chunkIndex, long fruitKey) {
+        ChunkDelta delta = chunkDeltas.get(chunkIndex);
+        if (delta != null) {
+            delta.remove(fruitKey);
+            if (delta.size == 0) {
+                chunkDeltas.remove(chunkIndex);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a fruit of a chunk is consumed.
+     *
+     * @param chunkIndex The index of the chunk of the fruit.
+     * @param fruitKey The stable key of the fruit.
+     * @return True if the fruit is consumed and did not regrow yet.
+     */
+    public synchronized boolean isConsumed(int chunkIndex, long fruitKey) {
+        ChunkDelta delta = chunkDeltas.get(chunkIndex);
+        return delta != null && delta.indexOf(fruitKey) >= 0;
+    }
+
+    /**
+     * Visits all the consumed fruits of the store.
+     *
+     * @param visitor Called with every consumed fruit. Must not change the store.
+     */
+    public synchronized void forEachConsumed(ConsumedFruitVisitor visitor) {
+        chunkDeltas.forEach((chunkIndex, delta) -> {
+            for (int i = 0; i < delta.size; i++) {
+                visitor.visit(chunkIndex, delta.fruitKeys[i], delta.deadlines[i]);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of chunks that have changes.
+     *
+     * @return The number of chunk deltas.
+     */
+    public synchronized int getChangedChunkCount() {
+        return chunkDeltas.size();
+    }
+
+    /**
+     * Writes all the deltas to the file, replacing its content, and waits for the write to finish.
+     *
+     * @param clock The current time on the caller's clock, the deadlines are written relative
+     *              to it.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public void flush(double clock) {
+        write(snapshot(clock));
+    }
+
+    /**
+     * Copies all the deltas into a snapshot right away, and writes it to the file on a background
+     * thread, so the caller never waits for the disk. A snapshot older than one that was already
+     * written is dropped. Does nothing while the previous background write is still running.
+     * Should always be called from the same thread.
+     *
+     * @param clock The current time on the caller's clock, the deadlines are written relative
+     *              to it.
+     * @throws UncheckedIOException If the previous background write failed. The new write is
+     *                              started anyway.
+     */
+    public void flushInBackground(double clock) {
+        RuntimeException previousFailure = null;
+        if (lastBackgroundWrite != null) {
+            if (!lastBackgroundWrite.isDone()) {
+                return;
+            }
+            previousFailure = failureOf(lastBackgroundWrite);
+        }
+        Snapshot snapshot = snapshot(clock);
+        lastBackgroundWrite = writer.submit(() -> write(snapshot));
+        if (previousFailure != null) {
+            throw previousFailure;
+        }
+    }
+
+    /**
+     * Returns the exception a finished background write failed with.
+     *
+     * @param finishedWrite The finished write.
+     * @return The exception of the write, or null if it succeeded.
+     */
+    private static RuntimeException failureOf(Future<?> finishedWrite) {
+        try {
+            finishedWrite.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof RuntimeException runtimeException ?
+                    runtimeException : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Copies all the deltas into the content of a delta file.
+     *
+     * @param clock The current time on the caller's clock, the deadlines are written relative
+     *              to it.
+     * @return The snapshot of the deltas.
+     */
+    private synchronized Snapshot snapshot(double clock) {
+        int[] fruitCount = {0};
+        chunkDeltas.forEach((chunkIndex, delta) -> fruitCount[0] += delta.size);
+        ByteBuffer bytes = ByteBuffer.allocate(HEADER_BYTES +
+                chunkDeltas.size() * CHUNK_HEADER_BYTES + fruitCount[0] * FRUIT_BYTES);
+        bytes.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(seed).putInt(chunkDeltas.size());
+        chunkDeltas.forEach((chunkIndex, delta) -> {
+            bytes.putInt(chunkIndex).putInt(delta.size);
+            for (int i = 0; i < delta.size; i++) {
+                bytes.putLong(delta.fruitKeys[i]).putDouble(delta.deadlines[i] - clock);
+            }
+        });
+        bytes.flip();
+        return new Snapshot(++lastSnapshotNumber, bytes);
+    }
+
+    /**
+     * Writes a snapshot to a temporary file, and atomically moves it over the file, unless a
+     * later snapshot was already written.
+     *
+     * @param snapshot The snapshot to write.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    private void write(Snapshot snapshot) {
+        synchronized (writeLock) {
+            if (snapshot.number() <= lastWrittenNumber) {
+                return;
+            }
+            Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_SUFFIX);
+            try {
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer bytes = snapshot.bytes();
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    channel.force(false);
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastWrittenNumber = snapshot.number();
+        }
+    }
+
+    /**
+     * Reads the deltas of the file, if it is a delta file of the same world.
+     * A file of another world, or a damaged file, is ignored.
+     *
+     * @throws UncheckedIOException If the file cannot be read.
+     */
+    private void load() {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != FILE_MAGIC ||
+                    buffer.getInt() != FILE_VERSION || buffer.getInt() != seed) {
+                return;
+            }
+            int chunkCount = buffer.getInt();
+            for (int c = 0; c < chunkCount; c++) {
+                int chunkIndex = buffer.getInt();
+                int fruitCount = buffer.getInt();
+                for (int i = 0; i < fruitCount; i++) {
+                    recordConsumed(chunkIndex, buffer.getLong(), buffer.getDouble());
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // A damaged file, keep what was read, the rest of the world is as generated
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -3,11 +3,11 @@ package pepse.world.daynight;
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
 import danogl.components.Transition;
-import danogl.gui.ImageReader;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
-import pepse.world.Terrain;
 
 import java.awt.*;
 
@@ -22,29 +22,28 @@ public class Sun {
      *
      * @param windowDimensions Dimensions of the game window.
      * @param cycleLength The time (in seconds) for the sun to complete a full cycle.
-     * @param imageReader An ImageReader instance used to load the image for the sun.
+     * @param assetCache The asset cache used to load the image for the sun.
+     * @param groundHeightGetter A function that returns the ground height at a given x-coordinate.
      * @return A GameObject representing the sun.
      */
-    public static GameObject create(ImageReader imageReader, Vector2 windowDimensions, float cycleLength) {
-        // Terrain object for determining ground height.
-        Terrain terrain = new Terrain(windowDimensions, Constants.RANDOM_SEED);
-
+    public static GameObject create(AssetCache assetCache, Vector2 windowDimensions, float cycleLength,
+                                    PepseGameManager.FloatFunction groundHeightGetter) {
         // Calculate the initial position of the sun.
         float sunX = windowDimensions.x() * Constants.HALF - Constants.SUN_SIZE * Constants.HALF;
-        float sunY = (windowDimensions.y() - terrain.groundHeightAt(sunX)) * Constants.HALF;
+        float sunY = (windowDimensions.y() - groundHeightGetter.apply(sunX)) * Constants.HALF;
         Vector2 initialSunCenter = new Vector2(sunX, sunY);
 
         // Create the sun GameObject.
         GameObject sun = new GameObject(
                 initialSunCenter, // Initial position (updated by the Transition)
                 new Vector2(Constants.SUN_SIZE, Constants.SUN_SIZE),
-                imageReader.readImage(Constants.SUN_IMAGE_PATH, true));
+                assetCache.readImage(Constants.SUN_IMAGE_PATH, true));
         sun.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sun.setTag(Constants.SUN);
 
         // Define the center point of the sun's trajectory.
         float cycleCenterX = windowDimensions.x() * Constants.HALF;
-        float cycleCenterY = terrain.groundHeightAt(cycleCenterX);
+        float cycleCenterY = groundHeightGetter.apply(cycleCenterX);
         Vector2 cycleCenter = new Vector2(cycleCenterX, cycleCenterY);
 
         // Add a Transition to animate the sun's movement.
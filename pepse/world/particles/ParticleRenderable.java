@@ -0,0 +1,78 @@
+package pepse.world.particles;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+import java.awt.*;
+
+/**
+ * A renderable that draws all the live particles of a ParticleSystem in a single pass, as small
+ * rectangles. The opacity of every particle is rounded to one of PARTICLE_ALPHA_LEVELS
+ * precomputed colors, so drawing allocates nothing.
+ */
+public class ParticleRenderable implements Renderable {
+    /** The particles to draw. */
+    private final ParticleSystem particles;
+
+    /** The particle color at every opacity level, from the faintest to fully opaque. */
+    private final Color[] alphaColors;
+
+    /** The width of every particle on the screen. */
+    private final int particleWidth;
+
+    /** The height of every particle on the screen. */
+    private final int particleHeight;
+
+    /**
+     * Constructs a ParticleRenderable.
+     *
+     * @param particles The particles to draw.
+     * @param color The color of the particles.
+     * @param particleSize The size of every particle on the screen.
+     */
+    public ParticleRenderable(ParticleSystem particles, Color color, Vector2 particleSize) {
+        this.particles = particles;
+        this.particleWidth = Math.round(particleSize.x());
+        this.particleHeight = Math.round(particleSize.y());
+        this.alphaColors = new Color[Constants.PARTICLE_ALPHA_LEVELS];
+        for (int level = 0; level < alphaColors.length; level++) {
+            int alpha = Constants.COLOR_MAX * (level + 1) / alphaColors.length;
+            alphaColors[level] = new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+        }
+    }
+
+    /**
+     * Draws the live particles, relative to the top-left corner of their system.
+     *
+     * @param g The graphics context to draw on.
+     * @param topLeftCorner The top-left corner of the particle system on the screen.
+     * @param dimensions Ignored, the particles have a fixed size.
+     * @param degreesCounterClockwise Ignored, particles are never rotated.
+     * @param isFlippedHorizontally Ignored, particles are never flipped.
+     * @param isFlippedVertically Ignored, particles are never flipped.
+     * @param opaqueness The opaqueness of the whole system, between 0 and 1.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite originalComposite = g.getComposite();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+
+        float[] x = particles.getX();
+        float[] y = particles.getY();
+        float[] alpha = particles.getAlpha();
+        int originX = Math.round(topLeftCorner.x());
+        int originY = Math.round(topLeftCorner.y());
+        for (int i = 0; i < particles.getCount(); i++) {
+            int level = Math.min(alphaColors.length - 1, (int) (alpha[i] * alphaColors.length));
+            g.setColor(alphaColors[level]);
+            g.fillRect(originX + (int) x[i], originY + (int) y[i], particleWidth, particleHeight);
+        }
+
+        g.setComposite(originalComposite);
+    }
+}
@@ -0,0 +1,239 @@
+package pepse.world.particles;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+import java.awt.*;
+
+/**
+ * A fixed-capacity set of particles, stored in structure-of-arrays form (x, y, vx, vy, life and
+ * alpha), and updated in a single loop. The whole set is one game object in camera coordinates,
+ * covering the screen, and all of its particles are drawn by one ParticleRenderable.
+ * Particles are killed when their life runs out, when they fade out, or when they leave the
+ * screen. If a ground is set, particles are also killed when they reach the ground, and the
+ * ground contact callback is told where.
+ */
+public class ParticleSystem extends GameObject {
+    /**
+     * Functional interface for reacting to a particle reaching the ground.
+     */
+    @FunctionalInterface
+    public interface GroundContact {
+        /**
+         * Called when a particle reaches the ground, right before it is killed.
+         *
+         * @param x The x-coordinate of the particle, in camera coordinates.
+         * @param y The y-coordinate of the ground under the particle, in camera coordinates.
+         */
+        void onContact(float x, float y);
+    }
+
+    /**
+     * Functional interface for sampling the ground under the screen, once per frame.
+     */
+    @FunctionalInterface
+    public interface GroundSampler {
+        /**
+         * Fills the ground heights under evenly spaced points of the screen.
+         *
+         * @param heights Receives the ground height under the point at x = i * spacing, for every
+         *                index i, all in camera coordinates.
+         * @param spacing The distance between the points, in pixels.
+         */
+        void sample(float[] heights, float spacing);
+    }
+
+    /** The x-coordinate of every particle, in camera coordinates. */
+    private final float[] x;
+
+    /** The y-coordinate of every particle, in camera coordinates. */
+    private final float[] y;
+
+    /** The horizontal velocity of every particle, in pixels per second. */
+    private final float[] vx;
+
+    /** The vertical velocity of every particle, in pixels per second. */
+    private final float[] vy;
+
+    /** The time left to every particle, in seconds. */
+    private final float[] life;
+
+    /** The opacity of every particle, between 0 and 1. */
+    private final float[] alpha;
+
+    /** The number of live particles. They are always the first ones in the arrays. */
+    private int count = 0;
+
+    /** The dimensions of the screen, particles outside of it are killed. */
+    private final Vector2 windowDimensions;
+
+    /** The downward acceleration of the particles, in pixels per second squared. */
+    private final float gravity;
+
+    /** The opacity the particles lose every second. */
+    private final float fadeRate;
+
+    /** Samples the ground under the screen, or null if the particles have no ground. */
+    private GroundSampler groundSampler = null;
+
+    /** Called when a particle reaches the ground. */
+    private GroundContact groundContact = null;
+
+    /** The ground heights of this frame, sampled every PARTICLE_GROUND_SAMPLE_SPACING pixels. */
+    private final float[] groundSamples;
+
+    /**
+     * Constructs a ParticleSystem with no live particles.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param capacity The maximal number of live particles.
+     * @param gravity The downward acceleration of the particles, in pixels per second squared.
+     * @param fadeRate The opacity the particles lose every second.
+     * @param color The color of the particles.
+     * @param particleSize The size of every particle on the screen.
+     */
+    public ParticleSystem(Vector2 windowDimensions,
+                          int capacity,
+                          float gravity,
+                          float fadeRate,
+                          Color color,
+                          Vector2 particleSize) {
+        super(Vector2.ZERO, windowDimensions, null);
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.life = new float[capacity];
+        this.alpha = new float[capacity];
+        this.windowDimensions = windowDimensions;
+        this.gravity = gravity;
+        this.fadeRate = fadeRate;
+        this.groundSamples = new float[
+                (int) (windowDimensions.x() / Constants.PARTICLE_GROUND_SAMPLE_SPACING) + 1];
+        renderer().setRenderable(new ParticleRenderable(this, color, particleSize));
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+    }
+
+    /**
+     * Sets the ground the particles land on.
+     *
+     * @param groundSampler Samples the ground under the screen, called once per frame.
+     * @param groundContact Called when a particle reaches the ground.
+     */
+    public void setGround(GroundSampler groundSampler, GroundContact groundContact) {
+        this.groundSampler = groundSampler;
+        this.groundContact = groundContact;
+    }
+
+    /**
+     * Adds a particle, unless the system is full.
+     *
+     * @param particleX The x-coordinate of the particle, in camera coordinates.
+     * @param particleY The y-coordinate of the particle, in camera coordinates.
+     * @param velocityX The horizontal velocity of the particle, in pixels per second.
+     * @param velocityY The vertical velocity of the particle, in pixels per second.
+     * @param lifetime The time the particle lives, in seconds.
+     * @return True if the particle was added, false if the system is full.
+     */
+    public boolean emit(float particleX, float particleY, float velocityX, float velocityY,
+                        float lifetime) {
+        if (count == x.length) {
+            return false;
+        }
+        x[count] = particleX;
+        y[count] = particleY;
+        vx[count] = velocityX;
+        vy[count] = velocityY;
+        life[count] = lifetime;
+        alpha[count] = 1;
+        count++;
+        return true;
+    }
+
+    /**
+     * Moves, ages and fades all the live particles, and kills the dead ones.
+     *
+     * @param deltaTime The time elapsed since the last frame, in seconds.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        boolean hasGround = groundSampler != null && count > 0;
+        if (hasGround) {
+            groundSampler.sample(groundSamples, Constants.PARTICLE_GROUND_SAMPLE_SPACING);
+        }
+
+        float width = windowDimensions.x();
+        float height = windowDimensions.y();
+        // Backwards, so a killed particle is replaced by one that was already updated
+        for (int i = count - 1; i >= 0; i--) {
+            vy[i] += gravity * deltaTime;
+            x[i] += vx[i] * deltaTime;
+            y[i] += vy[i] * deltaTime;
+            life[i] -= deltaTime;
+            alpha[i] -= fadeRate * deltaTime;
+            if (life[i] <= 0 || alpha[i] <= 0 || x[i] < 0 || x[i] >= width || y[i] >= height) {
+                kill(i);
+            } else if (hasGround) {
+                float ground = groundSamples[(int) (x[i] / Constants.PARTICLE_GROUND_SAMPLE_SPACING)];
+                if (y[i] >= ground) {
+                    groundContact.onContact(x[i], ground);
+                    kill(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Kills a particle, by moving the last live particle into its place.
+     *
+     * @param i The index of the particle.
+     */
+    private void kill(int i) {
+        count--;
+        x[i] = x[count];
+        y[i] = y[count];
+        vx[i] = vx[count];
+        vy[i] = vy[count];
+        life[i] = life[count];
+        alpha[i] = alpha[count];
+    }
+
+    /**
+     * Returns the number of live particles.
+     *
+     * @return The number of live particles, they are at indices 0 to count - 1.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the x-coordinates of the particles, for drawing them.
+     *
+     * @return The x-coordinate of every particle, only the first getCount() are live.
+     */
+    float[] getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinates of the particles, for drawing them.
+     *
+     * @return The y-coordinate of every particle, only the first getCount() are live.
+     */
+    float[] getY() {
+        return y;
+    }
+
+    /**
+     * Returns the opacities of the particles, for drawing them.
+     *
+     * @return The opacity of every particle, only the first getCount() are live.
+     */
+    float[] getAlpha() {
+        return alpha;
+    }
+}
@@ -0,0 +1,61 @@
+package pepse.world.particles;
+
+import pepse.util.Constants;
+
+import java.util.Random;
+
+/**
+ * Emits raindrops into a particle system, from a horizontal strip under a cloud.
+ * The drops start at RAIN_SPEED, with a little jitter, and fall until they reach the ground.
+ */
+public class RainEmitter {
+    /** The particle system of the raindrops. */
+    private final ParticleSystem particles;
+
+    /** Random number generator for the positions and speeds of the drops. */
+    private final Random random;
+
+    /**
+     * Constructs a RainEmitter.
+     *
+     * @param particles The particle system of the raindrops.
+     * @param random Random number generator for the positions and speeds of the drops.
+     */
+    public RainEmitter(ParticleSystem particles, Random random) {
+        this.particles = particles;
+        this.random = random;
+    }
+
+    /**
+     * Emits a burst of raindrops, spread evenly at random over a strip.
+     *
+     * @param minX The x-coordinate of the left edge of the strip, in camera coordinates.
+     * @param maxX The x-coordinate of the right edge of the strip, in camera coordinates.
+     * @param y The y-coordinate of the strip, in camera coordinates.
+     * @param numDrops The number of drops to emit. Stops early if the particle system is full.
+     */
+    public void emitBurst(float minX, float maxX, float y, int numDrops) {
+        for (int i = 0; i < numDrops; i++) {
+            float dropX = minX + random.nextFloat() * (maxX - minX);
+            float speed = Constants.RAIN_SPEED *
+                    (1 + (random.nextFloat() * 2 - 1) * Constants.RAIN_SPEED_VARIATION);
+            if (!particles.emit(dropX, y, 0, speed, Constants.RAIN_LIFETIME)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Emits the raindrops of a steady rain over a single frame. The fraction of a drop left by
+     * the rate is emitted at random, so the rain keeps its rate at any frame rate.
+     *
+     * @param minX The x-coordinate of the left edge of the strip, in camera coordinates.
+     * @param maxX The x-coordinate of the right edge of the strip, in camera coordinates.
+     * @param y The y-coordinate of the strip, in camera coordinates.
+     * @param dropsPerSecond The rate of the rain.
+     * @param deltaTime The time elapsed since the last frame, in seconds.
+     */
+    public void emitOver(float minX, float maxX, float y, float dropsPerSecond, float deltaTime) {
+        emitBurst(minX, maxX, y, (int) (dropsPerSecond * deltaTime + random.nextFloat()));
+    }
+}
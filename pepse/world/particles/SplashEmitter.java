@@ -0,0 +1,45 @@
+package pepse.world.particles;
+
+import pepse.util.Constants;
+
+import java.util.Random;
+
+/**
+ * Emits a small splash into a particle system wherever a raindrop reaches the ground.
+ * Used as the ground contact callback of the raindrop particle system.
+ */
+public class SplashEmitter implements ParticleSystem.GroundContact {
+    /** The particle system of the splashes. */
+    private final ParticleSystem particles;
+
+    /** Random number generator for the directions and speeds of the splash particles. */
+    private final Random random;
+
+    /**
+     * Constructs a SplashEmitter.
+     *
+     * @param particles The particle system of the splashes.
+     * @param random Random number generator for the directions and speeds of the particles.
+     */
+    public SplashEmitter(ParticleSystem particles, Random random) {
+        this.particles = particles;
+        this.random = random;
+    }
+
+    /**
+     * Emits SPLASH_PARTICLES particles thrown up and sideways from the contact point.
+     *
+     * @param x The x-coordinate of the raindrop, in camera coordinates.
+     * @param y The y-coordinate of the ground under the raindrop, in camera coordinates.
+     */
+    @Override
+    public void onContact(float x, float y) {
+        for (int i = 0; i < Constants.SPLASH_PARTICLES; i++) {
+            float velocityX = (random.nextFloat() * 2 - 1) * Constants.SPLASH_SPEED_X;
+            float velocityY = -Constants.SPLASH_SPEED_Y * (Constants.HALF + random.nextFloat());
+            if (!particles.emit(x, y, velocityX, velocityY, Constants.SPLASH_LIFETIME)) {
+                return;
+            }
+        }
+    }
+}
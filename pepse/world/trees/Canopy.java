@@ -0,0 +1,95 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+import java.util.List;
+
+/**
+ * Represents the foliage of a tree: a single game object covering the whole leaf grid of the
+ * tree, drawn by a CanopyRenderable. The engine updates and draws one object per tree instead of
+ * one object per leaf, and the sway of all the leaves is driven by the canopy's update.
+ */
+public class Canopy extends GameObject {
+    /** The renderable drawing the leaves of the canopy. */
+    private final CanopyRenderable canopyRenderable;
+
+    /**
+     * Constructs a Canopy.
+     *
+     * @param topLeft The top-left corner of the bounding box of the leaves.
+     * @param dimensions The dimensions of the bounding box of the leaves.
+     * @param canopyRenderable The renderable drawing the leaves.
+     */
+    private Canopy(Vector2 topLeft, Vector2 dimensions, CanopyRenderable canopyRenderable) {
+        super(topLeft, dimensions, canopyRenderable);
+        this.canopyRenderable = canopyRenderable;
+        this.setTag(Constants.LEAF);
+    }
+
+    /**
+     * Creates a canopy covering the given leaves.
+     *
+     * @param anchor The position of the canopy when it has no leaves.
+     * @param leafPositions The top-left corner of each leaf in the game world.
+     * @param seed The seed of the world, the leaves sway out of phase by it.
+     * @return A new Canopy drawing all the leaves.
+     */
+    public static Canopy create(Vector2 anchor, List<Vector2> leafPositions, int seed) {
+        Vector2 topLeft = boundsTopLeft(anchor, leafPositions);
+        return new Canopy(topLeft, boundsDimensions(topLeft, leafPositions),
+                new CanopyRenderable(topLeft, leafPositions, seed));
+    }
+
+    /**
+     * Computes the top-left corner of the bounding box of the leaves.
+     *
+     * @param anchor Returned when there are no leaves.
+     * @param leafPositions The top-left corner of each leaf.
+     * @return The top-left corner of the bounding box.
+     */
+    private static Vector2 boundsTopLeft(Vector2 anchor, List<Vector2> leafPositions) {
+        if (leafPositions.isEmpty()) {
+            return anchor;
+        }
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        for (Vector2 position : leafPositions) {
+            minX = Math.min(minX, position.x());
+            minY = Math.min(minY, position.y());
+        }
+        return new Vector2(minX, minY);
+    }
+
+    /**
+     * Computes the dimensions of the bounding box of the leaves.
+     *
+     * @param topLeft The top-left corner of the bounding box.
+     * @param leafPositions The top-left corner of each leaf.
+     * @return The dimensions of the bounding box, zero when there are no leaves.
+     */
+    private static Vector2 boundsDimensions(Vector2 topLeft, List<Vector2> leafPositions) {
+        if (leafPositions.isEmpty()) {
+            return Vector2.ZERO;
+        }
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (Vector2 position : leafPositions) {
+            maxX = Math.max(maxX, position.x() + Constants.LEAF_SIZE);
+            maxY = Math.max(maxY, position.y() + Constants.LEAF_SIZE);
+        }
+        return new Vector2(maxX - topLeft.x(), maxY - topLeft.y());
+    }
+
+    /**
+     * Advances the sway of the leaves.
+     *
+     * @param deltaTime The time elapsed since the last frame, in seconds.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        canopyRenderable.advance(deltaTime);
+    }
+}
@@ -0,0 +1,111 @@
+package pepse.world.trees;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.util.CoordinateHash;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.List;
+
+/**
+ * A renderable that draws all the leaves of a tree canopy in a single pass.
+ * Every leaf swings back and forth between LEAF_ANGLE_MIN and LEAF_ANGLE_MAX while shrinking
+ * from LEAF_SIZE to LEAF_WIDTH_MIN, over LEAF_MOVES_TIME seconds each way. The angle and width of
+ * each leaf are computed inside the draw from the canopy's clock, and the phase of each leaf is
+ * shifted by a fixed per-leaf offset, derived from its position, so the leaves do not move in sync.
+ */
+public class CanopyRenderable implements Renderable {
+    /** The resolution of the per-leaf phase offsets. */
+    private static final int OFFSET_RESOLUTION = 1 << 16;
+
+    /** The x-offset of each leaf from the top-left corner of the canopy. */
+    private final float[] leafOffsetsX;
+
+    /** The y-offset of each leaf from the top-left corner of the canopy. */
+    private final float[] leafOffsetsY;
+
+    /** The phase offset of each leaf, in seconds. */
+    private final float[] phaseOffsets;
+
+    /** The time on the canopy's clock, in seconds, wrapped to a single swing cycle. */
+    private float elapsedTime = 0;
+
+    /**
+     * Constructs a CanopyRenderable.
+     *
+     * @param canopyTopLeft The top-left corner of the canopy in the game world.
+     * @param leafPositions The top-left corner of each leaf in the game world.
+     * @param seed The seed of the world, mixed into the phase offset of every leaf.
+     */
+    public CanopyRenderable(Vector2 canopyTopLeft, List<Vector2> leafPositions, int seed) {
+        int numLeaves = leafPositions.size();
+        this.leafOffsetsX = new float[numLeaves];
+        this.leafOffsetsY = new float[numLeaves];
+        this.phaseOffsets = new float[numLeaves];
+        for (int i = 0; i < numLeaves; i++) {
+            Vector2 position = leafPositions.get(i);
+            leafOffsetsX[i] = position.x() - canopyTopLeft.x();
+            leafOffsetsY[i] = position.y() - canopyTopLeft.y();
+            int hash = CoordinateHash.positiveHash(seed,
+                    (int) position.x(), (int) position.y());
+            phaseOffsets[i] = (float) (hash % OFFSET_RESOLUTION) / OFFSET_RESOLUTION
+                    * Constants.LEAF_MAX_WAIT_TIME;
+        }
+    }
+
+    /**
+     * Advances the canopy's clock.
+     *
+     * @param deltaTime The time elapsed since the last frame, in seconds.
+     */
+    public void advance(float deltaTime) {
+        elapsedTime = (elapsedTime + deltaTime) % (2 * Constants.LEAF_MOVES_TIME);
+    }
+
+    /**
+     * Draws every leaf of the canopy, at its place in the swing cycle.
+     *
+     * @param g The graphics context to draw on.
+     * @param topLeftCorner The top-left corner of the canopy on the screen.
+     * @param dimensions The dimensions of the canopy on the screen (the leaves keep their size).
+     * @param degreesCounterClockwise Added to the angle of every leaf.
+     * @param isFlippedHorizontally Ignored, the leaves are symmetric.
+     * @param isFlippedVertically Ignored, the leaves are symmetric.
+     * @param opaqueness The opaqueness of the canopy, between 0 and 1.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite originalComposite = g.getComposite();
+        AffineTransform originalTransform = g.getTransform();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+        g.setColor(Constants.LEAF_COLOR);
+
+        float cycle = 2 * Constants.LEAF_MOVES_TIME;
+        int height = Math.round(Constants.LEAF_SIZE);
+        for (int i = 0; i < leafOffsetsX.length; i++) {
+            float phase = (elapsedTime + phaseOffsets[i]) % cycle;
+            // A triangle wave: goes from 0 to 1 over LEAF_MOVES_TIME, and back
+            float progress = phase < Constants.LEAF_MOVES_TIME ?
+                    phase / Constants.LEAF_MOVES_TIME :
+                    2 - phase / Constants.LEAF_MOVES_TIME;
+            float angle = Constants.LEAF_ANGLE_MIN +
+                    (Constants.LEAF_ANGLE_MAX - Constants.LEAF_ANGLE_MIN) * progress;
+            float width = Constants.LEAF_SIZE + (Constants.LEAF_WIDTH_MIN - Constants.LEAF_SIZE) * progress;
+
+            // The leaf shrinks from its right side, and rotates around its own center
+            g.translate(topLeftCorner.x() + leafOffsetsX[i] + width * Constants.HALF,
+                    topLeftCorner.y() + leafOffsetsY[i] + Constants.LEAF_SIZE * Constants.HALF);
+            g.rotate(-Math.toRadians(degreesCounterClockwise + angle));
+            g.fillRect(Math.round(-width * Constants.HALF), -height / 2, Math.round(width), height);
+            g.setTransform(originalTransform);
+        }
+
+        g.setComposite(originalComposite);
+    }
+}
@@ -1,10 +1,11 @@
 package pepse.world.trees;
 
-import danogl.gui.ImageReader;
 import danogl.util.Vector2;
-import pepse.PepseGameManager;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
 import pepse.world.Block;
+import pepse.world.biomes.Biome;
+import pepse.world.biomes.BiomeMap;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,29 +13,53 @@ import java.util.Random;
 
 /**
  * The Flora class handles the creation and management of trees in the game world.
- * It generates trees within a specified range based on predefined probabilities
+ * It generates trees within a specified range based on the tree density of the biome
  * and the current terrain height.
  */
 public class Flora {
-    /** A function to retrieve the current terrain height for a given x-coordinate. */
-    private final PepseGameManager.FloatFunction curHeightGetter;
+    /**
+     * Functional interface for reading the biomes of block columns.
+     */
+    @FunctionalInterface
+    public interface BiomeSampler {
+        /**
+         * Returns the biomes of all the block columns in a range.
+         *
+         * @param minX The block-aligned x-coordinate of the first column.
+         * @param maxX The block-aligned x-coordinate of the last column.
+         * @return The biome of each column, from left to right.
+         */
+        Biome[] biomesInRange(int minX, int maxX);
+    }
+
+    /** A function to retrieve the terrain heights of a range of block columns. */
+    private final BiomeMap.HeightSampler heightSampler;
+
+    /** A function to retrieve the biomes of a range of block columns. */
+    private final BiomeSampler biomeSampler;
 
-    /** An ImageReader instance used for loading tree images. */
-    private final ImageReader imageReader;
+    /** The asset cache used for loading tree images. */
+    private final AssetCache assetCache;
 
-    /** A single static instance of Random to ensure consistent tree generation. */
-    private static final Random seededRandom = new Random(); // Single instance for consistency
+    /** The seed of the world, the trees are placed and shaped by it. */
+    private final int seed;
 
     /**
      * Constructs a Flora instance responsible for generating trees in the game world.
      *
-     * @param curHeightGetter A function to obtain the terrain height at specific x-coordinates.
-     * @param imageReader     An ImageReader instance for loading tree-related images.
+     * @param heightSampler A function to obtain the terrain heights of a range of block columns.
+     * @param biomeSampler  A function to obtain the biomes of a range of block columns.
+     * @param assetCache    The asset cache for loading tree-related images.
+     * @param seed          The seed of the world.
      */
-    public Flora(PepseGameManager.FloatFunction curHeightGetter,
-                 ImageReader imageReader){
-        this.curHeightGetter = curHeightGetter;
-        this.imageReader = imageReader;
+    public Flora(BiomeMap.HeightSampler heightSampler,
+                 BiomeSampler biomeSampler,
+                 AssetCache assetCache,
+                 int seed){
+        this.heightSampler = heightSampler;
+        this.biomeSampler = biomeSampler;
+        this.assetCache = assetCache;
+        this.seed = seed;
     }
 
     /**
@@ -44,7 +69,7 @@ public class Flora {
      * @return A deterministic integer seed value derived from the coordinate.
      */
     private int generateSeedForPosition(Vector2 coordinate) {
-        return (int) (coordinate.x() + coordinate.y()) * Constants.RANDOM_SEED;
+        return (int) (coordinate.x() + coordinate.y()) * seed;
     }
 
     /**
@@ -57,24 +82,54 @@ public class Flora {
      */
     public List<Tree> createInRange(int minX, int maxX) {
         List<Tree> trees = new ArrayList<Tree>();
+        for (TreeLayout layout : layoutsInRange(minX, maxX)) {
+            trees.add(new Tree(assetCache, layout));
+        }
+        return trees;
+    }
 
+    /**
+     * Computes the layouts of the trees within a specified range of x-coordinates, without
+     * creating any game object. The heights and biomes of the range are read in one batch.
+     *
+     * @param minX The minimum x-coordinate of the range.
+     * @param maxX The maximum x-coordinate of the range.
+     * @return A list of the layouts of the trees within the specified range.
+     */
+    public List<TreeLayout> layoutsInRange(int minX, int maxX) {
         int adjustedMinX = (int) Math.floor((double) minX / Block.SIZE) * Block.SIZE;
         int adjustedMaxX = (int) Math.ceil((double) maxX / Block.SIZE) * Block.SIZE;
+        return layoutsInRange(adjustedMinX,
+                heightSampler.heightsInRange(adjustedMinX, adjustedMaxX),
+                biomeSampler.biomesInRange(adjustedMinX, adjustedMaxX));
+    }
+
+    /**
+     * Computes the layouts of the trees along consecutive block columns, from precomputed ground
+     * heights and biomes. Uses no shared state, so it is safe to call from any thread.
+     *
+     * @param minX The block-aligned x-coordinate of the first column.
+     * @param groundHeights The ground height of each column, starting at minX.
+     * @param biomes The biome of each column, starting at minX.
+     * @return A list of the layouts of the trees along the columns.
+     */
+    public List<TreeLayout> layoutsInRange(int minX, float[] groundHeights, Biome[] biomes) {
+        List<TreeLayout> layouts = new ArrayList<>();
+        Random seededRandom = new Random();
 
         // Create trees along the X range
-        for (int x = adjustedMinX; x <= adjustedMaxX; x += Block.SIZE) {
-            float curTreeY = curHeightGetter.apply(x) + Constants.TRACK_Y_OFFSET ;
+        for (int i = 0; i < groundHeights.length; i++) {
+            int x = minX + i * Block.SIZE;
+            float curTreeY = groundHeights[i] + Constants.TRACK_Y_OFFSET;
             Vector2 treeCor = new Vector2(x, curTreeY);
 
             int seed = generateSeedForPosition(treeCor);
             seededRandom.setSeed(seed);
 
-            if (seededRandom.nextFloat() < Constants.TREE_THRESHOLD) { // 10% chance to create a tree
-                Tree tree = new Tree(imageReader, treeCor);
-                tree.setTag(Constants.TREE);
-                trees.add(tree);
+            if (seededRandom.nextFloat() < biomes[i].getTreeThreshold()) { // Depends on the biome density
+                layouts.add(TreeLayout.generate(treeCor, seed));
             }
         }
-        return trees;
+        return layouts;
     }
 }
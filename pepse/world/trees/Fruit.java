@@ -1,75 +1,121 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.collisions.Collision;
-import danogl.components.ScheduledTask;
-import danogl.gui.ImageReader;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
 import pepse.world.Avatar;
+import pepse.world.Interactable;
+
+import java.util.function.Consumer;
 
 /**
  * Represents a fruit object in the game world. Fruits can be collected by the Avatar
  * to gain energy, and they regenerate after a set time period.
+ * Fruits are not collided by the engine: they are Interactables, picked up when the Avatar's
+ * query of the interactables grid finds them. A fruit has no timer of its own: when it is eaten
+ * it tells its callback, and a RegrowthScheduler makes it regrow.
  */
-public class Fruit extends GameObject {
+public class Fruit extends GameObject implements Interactable {
+
+    /** The shared image of the fruit, restored when the fruit regrows. */
+    private final Renderable fruitImage;
 
-    /** The ImageReader instance used to load the fruit image. */
-    private final ImageReader imageReader;
+    /** The stable key of the fruit, the same every time its tree is generated. */
+    private final long key;
+
+    /** Called when the fruit is eaten, or null if nothing should happen. */
+    private Consumer<Fruit> onEatenCallback = null;
 
     /**
      * Constructs a Fruit object at the specified coordinates.
      *
-     * @param imageReader An ImageReader instance to load the fruit image.
+     * @param assetCache The asset cache to load the fruit image.
      * @param coordinates The initial position of the fruit in the game world.
      */
-    public Fruit(ImageReader imageReader,
+    public Fruit(AssetCache assetCache,
                  Vector2 coordinates) {
         super(coordinates,
                 new Vector2(Constants.FRUIT_SIZE, Constants.FRUIT_SIZE),
-                imageReader.readImage(Constants.FRUIT_IMAGE_PATH, true));
-        this.imageReader = imageReader;
+                assetCache.readImage(Constants.FRUIT_IMAGE_PATH, true));
+        this.fruitImage = renderer().getRenderable();
+        this.key = keyOf(coordinates);
 
         this.setTag(Constants.FRUIT);
     }
 
     /**
-     * Handles the behavior when the fruit collides with another game object.
-     * If the fruit collides with the Avatar, it adds energy to the Avatar,
-     * removes itself from the renderer, and schedules regeneration.
+     * Returns the stable key of a fruit position. Fruit positions come from the seeded tree
+     * layouts, so a fruit gets the same key every time its tree is generated.
+     *
+     * @param coordinates The position of the fruit in the game world.
+     * @return The rounded coordinates, packed into a single key.
+     */
+    public static long keyOf(Vector2 coordinates) {
+        return ((long) Math.round(coordinates.x()) << Integer.SIZE) |
+                (Math.round(coordinates.y()) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the stable key of the fruit.
      *
-     * @param other The other GameObject involved in the collision.
-     * @param collision The Collision instance representing the collision event.
+     * @return The key of the fruit, the same every time its tree is generated.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Sets the callback called when the fruit is eaten.
+     *
+     * @param onEatenCallback Called with the fruit when it is eaten.
+     */
+    public void setOnEatenCallback(Consumer<Fruit> onEatenCallback) {
+        this.onEatenCallback = onEatenCallback;
+    }
+
+    /**
+     * Returns whether the fruit can be eaten, that is, it was not eaten or it already regrew.
+     *
+     * @return True if the fruit is shown.
      */
     @Override
-    public void onCollisionEnter(GameObject other, Collision collision) {
-        super.onCollisionEnter(other, collision);
+    public boolean isActive() {
+        return this.renderer().getRenderable() != null;
+    }
 
-        if (other.getTag().equals(Constants.AVATAR) && this.renderer().getRenderable() != null) {
-            // Add energy to the Avatar
-            Avatar curAvatar = (Avatar) other;
-            curAvatar.addEnergy(Constants.FRUIT_ENERGY);
+    /**
+     * Called when the Avatar touches the fruit while it is active: adds energy to the Avatar,
+     * removes the fruit from the renderer, and tells the callback the fruit was eaten.
+     *
+     * @param avatar The avatar touching the fruit.
+     */
+    @Override
+    public void interact(Avatar avatar) {
+        // Add energy to the Avatar
+        avatar.addEnergy(Constants.FRUIT_ENERGY);
 
-            // Remove fruit from renderer
-            this.renderer().setRenderable(null);
+        // Remove fruit from renderer
+        hide();
 
-            // Schedule regeneration
-            addFruit();
+        // Schedule regeneration
+        if (onEatenCallback != null) {
+            onEatenCallback.accept(this);
         }
     }
 
     /**
-     * Schedules the regeneration of the fruit after a predefined time period.
-     * Once the time elapses, the fruit image is restored to make it collectible again.
+     * Hides the fruit, as an eaten fruit.
+     */
+    public void hide() {
+        this.renderer().setRenderable(null);
+    }
+
+    /**
+     * Restores the shared fruit image, making the fruit collectible again.
      */
-    public void addFruit() {
-        new ScheduledTask(
-                this,
-                Constants.DAY_LONG,
-                false,
-                () -> {
-                    this.renderer().setRenderable(imageReader.readImage(Constants.FRUIT_IMAGE_PATH, true));
-                }
-        );
+    public void regrow() {
+        this.renderer().setRenderable(fruitImage);
     }
 }
@@ -0,0 +1,149 @@
+package pepse.world.trees;
+
+import pepse.world.chunks.ChunkManager;
+import pepse.world.chunks.WorldDeltaStore;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Tracks the regrowth of all the eaten fruits on a single day clock, instead of a timer per
+ * fruit. The regrowth deadlines are kept in a priority queue, and every update fires all the
+ * deadlines that passed, as a batch.
+ * The eaten fruits are tracked by their stable keys, not by their objects, in the chunk deltas of
+ * a WorldDeltaStore, so a fruit stays eaten when its chunk is unloaded and loaded again, and it
+ * regrows on time even if it was unloaded in the meantime.
+ */
+public class RegrowthScheduler {
+    /**
+     * A pending regrowth of a fruit.
+     *
+     * @param deadline The time on the day clock the fruit regrows at, in seconds.
+     * @param chunkIndex The index of the chunk of the fruit.
+     * @param fruitKey The stable key of the fruit.
+     */
+    private record Regrowth(double deadline, int chunkIndex, long fruitKey) {
+    }
+
+    /** The time it takes an eaten fruit to regrow, in seconds. */
+    private final float regrowthTime;
+
+    /** The time on the day clock, in seconds since the game started. Read by the flush too. */
+    private volatile double clock = 0;
+
+    /** The pending regrowths, the earliest deadline first. */
+    private final PriorityQueue<Regrowth> pendingRegrowths =
+            new PriorityQueue<>(Comparator.comparingDouble(Regrowth::deadline));
+
+    /** The eaten fruits and their regrowth deadlines, by chunk. */
+    private final WorldDeltaStore deltaStore;
+
+    /** The fruits that are in the game, by fruit key. */
+    private final Map<Long, Fruit> loadedFruits = new HashMap<>();
+
+    /**
+     * Constructs a RegrowthScheduler.
+     *
+     * @param regrowthTime The time it takes an eaten fruit to regrow, in seconds.
+     * @param deltaStore The eaten fruits and their regrowth deadlines, by chunk. The fruits it
+     *                   already holds (loaded from a previous game) are scheduled too.
+     */
+    public RegrowthScheduler(float regrowthTime, WorldDeltaStore deltaStore) {
+        this.regrowthTime = regrowthTime;
+        this.deltaStore = deltaStore;
+        deltaStore.forEachConsumed((chunkIndex, fruitKey, deadline) ->
+                pendingRegrowths.add(new Regrowth(deadline, chunkIndex, fruitKey)));
+    }
+
+    /**
+     * Returns the index of the chunk a fruit belongs to in the delta store.
+     *
+     * @param fruit The fruit.
+     * @return The index of the chunk containing the fruit's left edge.
+     */
+    private static int chunkIndexOf(Fruit fruit) {
+        return ChunkManager.chunkIndexAt(fruit.getTopLeftCorner().x());
+    }
+
+    /**
+     * Registers a fruit that was loaded into the game, hiding it if it is still eaten.
+     *
+     * @param fruit The loaded fruit.
+     */
+    public void register(Fruit fruit) {
+        loadedFruits.put(fruit.getKey(), fruit);
+        fruit.setOnEatenCallback(this::schedule);
+        if (deltaStore.isConsumed(chunkIndexOf(fruit), fruit.getKey())) {
+            fruit.hide();
+        }
+    }
+
+    /**
+     * Unregisters a fruit that was unloaded from the game. If it is eaten, it keeps its deadline.
+     * The fruit keeps its callback, since it can still be eaten until its removal is applied.
+     *
+     * @param fruit The unloaded fruit.
+     */
+    public void unregister(Fruit fruit) {
+        loadedFruits.remove(fruit.getKey(), fruit);
+    }
+
+    /**
+     * Schedules the regrowth of an eaten fruit, regrowthTime seconds from now.
+     *
+     * @param fruit The eaten fruit.
+     */
+    public void schedule(Fruit fruit) {
+        double deadline = clock + regrowthTime;
+        int chunkIndex = chunkIndexOf(fruit);
+        deltaStore.recordConsumed(chunkIndex, fruit.getKey(), deadline);
+        pendingRegrowths.add(new Regrowth(deadline, chunkIndex, fruit.getKey()));
+    }
+
+    /**
+     * Advances the day clock, and regrows all the fruits whose deadline passed. Fruits that are
+     * not loaded are only forgotten, so they are generated uneaten when they are loaded again.
+     *
+     * @param deltaTime The time elapsed since the last frame, in seconds.
+     */
+    public void update(float deltaTime) {
+        clock += deltaTime;
+        while (!pendingRegrowths.isEmpty() && pendingRegrowths.peek().deadline() <= clock) {
+            Regrowth regrowth = pendingRegrowths.poll();
+            deltaStore.clearConsumed(regrowth.chunkIndex(), regrowth.fruitKey());
+            Fruit fruit = loadedFruits.get(regrowth.fruitKey());
+            if (fruit != null) {
+                fruit.regrow();
+            }
+        }
+    }
+
+    /**
+     * Writes the eaten fruits and their regrowth deadlines to the delta store's file, and waits
+     * for the write to finish.
+     */
+    public void flush() {
+        deltaStore.flush(clock);
+    }
+
+    /**
+     * Writes the eaten fruits and their regrowth deadlines to the delta store's file on a
+     * background thread, without waiting for the disk.
+     *
+     * @throws java.io.UncheckedIOException If the previous background write failed.
+     */
+    public void flushInBackground() {
+        deltaStore.flushInBackground(clock);
+    }
+
+    /**
+     * Returns the number of eaten fruits waiting to regrow.
+     *
+     * @return The number of pending regrowths.
+     */
+    public int getPendingCount() {
+        return pendingRegrowths.size();
+    }
+}
@@ -1,30 +1,29 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.gui.ImageReader;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Represents a Tree object in the game world.
- * A tree consists of a trunk, leaves, and fruits.
+ * A tree consists of a trunk, a canopy of leaves, and fruits.
  */
 public class Tree extends GameObject {
 
-    /** A list of leaves attached to the tree. */
-    private final List<GameObject> leaves = new ArrayList<>();
+    /** The foliage of the tree, drawing all of its leaves. */
+    private Canopy canopy;
     /** A list of fruits attached to the tree. */
     private final List<Fruit> fruits = new ArrayList<>();
-    /** ImageReader instance for rendering images for the tree components. */
-    private final ImageReader imageReader;
+    /** The asset cache, for the images of the tree components. */
+    private final AssetCache assetCache;
     /** Represents the trunk of the tree. */
     private Trunk trunk;
-    /** A single Random instance for consistent randomization of tree properties. */
-    private static final Random seededRandom = new Random();
+    /** The layout (trunk height, leaves and fruits placement) of the tree. */
+    private final TreeLayout layout;
     /** The top-left corner coordinates of the tree. */
     private Vector2 coordinates;
 
@@ -32,17 +31,29 @@ public class Tree extends GameObject {
      * Constructs a Tree object at the given coordinates.
      * Initializes the trunk, leaves, and fruits based on randomized properties.
      *
-     * @param imageReader An ImageReader instance to load images for tree components.
+     * @param assetCache The asset cache to load images for tree components.
      * @param coordinates The top-left corner coordinates of the tree in the game world.
+     * @param seed The seed of the world.
      */
-    public Tree(ImageReader imageReader,
-                Vector2 coordinates) {
-        super(coordinates, Vector2.ZERO, null);
-        this.imageReader = imageReader;
-        this.coordinates = coordinates;
+    public Tree(AssetCache assetCache,
+                Vector2 coordinates,
+                int seed) {
+        this(assetCache, TreeLayout.generate(coordinates, seed));
+    }
 
-        // Set Random seed:
-        seededRandom.setSeed(Constants.RANDOM_SEED);
+    /**
+     * Constructs a Tree object from a precomputed layout.
+     *
+     * @param assetCache The asset cache to load images for tree components.
+     * @param layout The layout of the tree, including its coordinates.
+     */
+    public Tree(AssetCache assetCache,
+                TreeLayout layout) {
+        super(layout.getCoordinates(), Vector2.ZERO, null);
+        this.assetCache = assetCache;
+        this.layout = layout;
+        this.coordinates = layout.getCoordinates();
+        this.setTag(Constants.TREE);
 
         // Create trunk:
         createTrunk();
@@ -53,18 +64,17 @@ public class Tree extends GameObject {
     }
 
     /**
-     * Creates the trunk of the tree with randomized height.
+     * Creates the trunk of the tree with the height of the layout.
      * Sets the dimensions of the Tree object to match the trunk height.
      */
     private void createTrunk() {
-        float treeTrunkHeight = seededRandom.nextFloat(
-                Constants.TREE_TRUNK_HEIGHT_MIN, Constants.TREE_TRUNK_HEIGHT_MAX);
+        float treeTrunkHeight = layout.getTrunkHeight();
         Vector2 trunkTopLeft = new Vector2(
                 coordinates.x(),
                 coordinates.y() - treeTrunkHeight // Adjust for height
         );
 
-        Trunk trunk = new Trunk(imageReader,
+        Trunk trunk = new Trunk(assetCache,
                 trunkTopLeft,
                 new Vector2(Constants.TREE_TRUNK_WIDTH, treeTrunkHeight));
 
@@ -73,36 +83,21 @@ public class Tree extends GameObject {
     }
 
     /**
-     * Creates leaves and fruits for the tree.
-     * Leaves are created with a higher probability than fruits, and their positions are randomized.
+     * Creates leaves and fruits for the tree, at the positions of the layout.
      */
     private void createLeavesAndFruits() {
-        float leavesWidth = Constants.NUM_OF_LEAVES_IN_ROW * (Constants.LEAF_SIZE + Constants.LEAF_SPACE);
-        float leavesStartX = trunk.getCenter().x() - leavesWidth / 2;
-
-        for (int i = 0; i < Constants.NUM_OF_LEAVES_IN_ROW; i++) {
-            for (int j = 0; j < Constants.NUM_OF_LEAVES_IN_ROW; j++) {
-
-                Vector2 curCoordinate = new Vector2(
-                        leavesStartX + i * (Constants.LEAF_SIZE + Constants.LEAF_SPACE),
-                        this.trunk.getCenter().y() - j * (Constants.LEAF_SIZE + Constants.LEAF_SPACE));
-
-                if (seededRandom.nextFloat() < Constants.LEAF_THRESHOLD) {
-                    GameObject curLeaf = Leaf.create(curCoordinate);
-                    leaves.add(curLeaf);
-
-                } else if (seededRandom.nextFloat() < Constants.FRUIT_THRESHOLD) {
-                    Fruit fruit = new Fruit(imageReader, curCoordinate);
-                    fruits.add(fruit);
-                }
-            }
+        canopy = Canopy.create(trunk.getTopLeftCorner(), layout.getLeafPositions(),
+                layout.getSeed());
+        for (Vector2 fruitPosition : layout.getFruitPositions()) {
+            fruits.add(new Fruit(assetCache, fruitPosition));
         }
+
+        float leavesWidth = Constants.NUM_OF_LEAVES_IN_ROW * (Constants.LEAF_SIZE + Constants.LEAF_SPACE);
         float newHeight = trunk.getDimensions().y() +
                 Constants.NUM_OF_LEAVES_IN_ROW * (Constants.LEAF_SIZE + Constants.LEAF_SPACE);
         this.setDimensions(new Vector2(leavesWidth, newHeight));
     }
 
-
     /**
      * Retrieves the trunk of the tree.
      *
@@ -113,12 +108,12 @@ public class Tree extends GameObject {
     }
 
     /**
-     * Retrieves the list of leaves attached to the tree.
+     * Retrieves the canopy of the tree, drawing all of its leaves.
      *
-     * @return A list of GameObjects representing the leaves.
+     * @return The canopy GameObject of the tree.
      */
-    public List<GameObject> getLeaves() {
-        return leaves;
+    public GameObject getCanopy() {
+        return canopy;
     }
 
     /**
@@ -131,7 +126,7 @@ public class Tree extends GameObject {
     }
 
     /**
-     * Updates the center of the tree and its components (trunk, leaves, fruits).
+     * Updates the center of the tree and its components (trunk, canopy, fruits).
      *
      * @param center The new center position of the tree.
      */
@@ -140,9 +135,7 @@ public class Tree extends GameObject {
         Vector2 offset = center.subtract(trunk.getCenter());
         trunk.setCenter(trunk.getCenter().add(offset));
 
-        for (GameObject leaf : leaves) {
-            leaf.setCenter(leaf.getCenter().add(offset));
-        }
+        canopy.setCenter(canopy.getCenter().add(offset));
         for (Fruit fruit : fruits) {
             fruit.setCenter(fruit.getCenter().add(offset));
         }
@@ -151,7 +144,7 @@ public class Tree extends GameObject {
     }
 
     /**
-     * Updates the top-left corner of the tree and its components (trunk, leaves, fruits).
+     * Updates the top-left corner of the tree and its components (trunk, canopy, fruits).
      *
      * @param topLeftCorner The new top-left corner position of the tree.
      */
@@ -160,9 +153,7 @@ public class Tree extends GameObject {
         Vector2 offset = topLeftCorner.subtract(trunk.getTopLeftCorner());
         trunk.setTopLeftCorner(topLeftCorner);
 
-        for (GameObject leaf : leaves) {
-            leaf.setTopLeftCorner(leaf.getTopLeftCorner().add(offset));
-        }
+        canopy.setTopLeftCorner(canopy.getTopLeftCorner().add(offset));
         for (Fruit fruit : fruits) {
             fruit.setTopLeftCorner(fruit.getTopLeftCorner().add(offset));
         }
@@ -0,0 +1,130 @@
+package pepse.world.trees;
+
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Describes the shape of a tree: the height of its trunk and the positions of its leaves and
+ * fruits. A layout is plain data, computed without creating any game object, so it can be
+ * generated ahead of time on a background thread and turned into a Tree later.
+ */
+public class TreeLayout {
+    /** The bottom-left corner of the tree's trunk (its top-left corner before the height is applied). */
+    private final Vector2 coordinates;
+    /** The height of the trunk. */
+    private final float trunkHeight;
+    /** The top-left corners of the leaves. */
+    private final List<Vector2> leafPositions;
+    /** The top-left corners of the fruits. */
+    private final List<Vector2> fruitPositions;
+    /** The seed of the world the tree belongs to. */
+    private final int seed;
+
+    /**
+     * Constructs a TreeLayout.
+     *
+     * @param coordinates The coordinates of the tree.
+     * @param trunkHeight The height of the trunk.
+     * @param leafPositions The top-left corners of the leaves.
+     * @param fruitPositions The top-left corners of the fruits.
+     * @param seed The seed of the world the tree belongs to.
+     */
+    private TreeLayout(Vector2 coordinates, float trunkHeight,
+                       List<Vector2> leafPositions, List<Vector2> fruitPositions, int seed) {
+        this.coordinates = coordinates;
+        this.trunkHeight = trunkHeight;
+        this.leafPositions = Collections.unmodifiableList(leafPositions);
+        this.fruitPositions = Collections.unmodifiableList(fruitPositions);
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the layout of a tree at the given coordinates, with randomized trunk height
+     * and leaf and fruit placement. Leaves are placed with a higher probability than fruits.
+     * Uses no shared state, so it is safe to call from any thread.
+     *
+     * @param coordinates The coordinates of the tree in the game world.
+     * @param seed The seed of the world.
+     * @return The layout of the tree.
+     */
+    public static TreeLayout generate(Vector2 coordinates, int seed) {
+        Random seededRandom = new Random(seed);
+
+        // Trunk:
+        float trunkHeight = seededRandom.nextFloat(
+                Constants.TREE_TRUNK_HEIGHT_MIN, Constants.TREE_TRUNK_HEIGHT_MAX);
+        float trunkCenterX = coordinates.x() + Constants.TREE_TRUNK_WIDTH * Constants.HALF;
+        float trunkCenterY = coordinates.y() - trunkHeight + trunkHeight * Constants.HALF;
+
+        // Leaves and fruits:
+        List<Vector2> leafPositions = new ArrayList<>();
+        List<Vector2> fruitPositions = new ArrayList<>();
+        float leavesWidth = Constants.NUM_OF_LEAVES_IN_ROW * (Constants.LEAF_SIZE + Constants.LEAF_SPACE);
+        float leavesStartX = trunkCenterX - leavesWidth / 2;
+
+        for (int i = 0; i < Constants.NUM_OF_LEAVES_IN_ROW; i++) {
+            for (int j = 0; j < Constants.NUM_OF_LEAVES_IN_ROW; j++) {
+                Vector2 curCoordinate = new Vector2(
+                        leavesStartX + i * (Constants.LEAF_SIZE + Constants.LEAF_SPACE),
+                        trunkCenterY - j * (Constants.LEAF_SIZE + Constants.LEAF_SPACE));
+
+                if (seededRandom.nextFloat() < Constants.LEAF_THRESHOLD) {
+                    leafPositions.add(curCoordinate);
+                } else if (seededRandom.nextFloat() < Constants.FRUIT_THRESHOLD) {
+                    fruitPositions.add(curCoordinate);
+                }
+            }
+        }
+        return new TreeLayout(coordinates, trunkHeight, leafPositions, fruitPositions, seed);
+    }
+
+    /**
+     * Returns the coordinates of the tree.
+     *
+     * @return The coordinates of the tree.
+     */
+    public Vector2 getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * Returns the height of the trunk.
+     *
+     * @return The trunk height.
+     */
+    public float getTrunkHeight() {
+        return trunkHeight;
+    }
+
+    /**
+     * Returns the top-left corners of the leaves.
+     *
+     * @return An unmodifiable list of leaf positions.
+     */
+    public List<Vector2> getLeafPositions() {
+        return leafPositions;
+    }
+
+    /**
+     * Returns the top-left corners of the fruits.
+     *
+     * @return An unmodifiable list of fruit positions.
+     */
+    public List<Vector2> getFruitPositions() {
+        return fruitPositions;
+    }
+
+    /**
+     * Returns the seed of the world the tree belongs to.
+     *
+     * @return The world seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,124 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import pepse.util.AssetCache;
+import pepse.util.Constants;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Owns every tree created from the Flora's tree layouts, and manages its lifecycle in the game world.
+ * Trees are indexed by their x-coordinate, so the trees of a given range can be found and
+ * unloaded without scanning the game layers. Unloading a tree removes its trunk, canopy and
+ * fruits from the game.
+ * The fruits of the loaded trees are registered with the regrowth scheduler, which remembers the
+ * eaten fruits across unloads. They enter and leave the interactables grid together with the
+ * game, when their streamed addition or removal is applied.
+ */
+public class TreeLifecycleManager {
+    /** The asset cache, for the images of the tree components. */
+    private final AssetCache assetCache;
+
+    /** The loaded trees, indexed by their x-coordinate. */
+    private final NavigableMap<Integer, Tree> treesByX = new TreeMap<>();
+
+    /** Adds a game object to the game in the given layer. */
+    private final BiConsumer<GameObject, Integer> objectAdder;
+
+    /** Removes a game object from the game, from the given layer. */
+    private final BiConsumer<GameObject, Integer> objectRemover;
+
+    /** Regrows the eaten fruits. */
+    private final RegrowthScheduler regrowthScheduler;
+
+    /**
+     * Constructs a TreeLifecycleManager.
+     *
+     * @param assetCache The asset cache to load images for tree components.
+     * @param objectAdder Adds a game object to the game in a given layer.
+     * @param objectRemover Removes a game object from a given layer of the game.
+     * @param regrowthScheduler Regrows the eaten fruits.
+     */
+    public TreeLifecycleManager(AssetCache assetCache,
+                                BiConsumer<GameObject, Integer> objectAdder,
+                                BiConsumer<GameObject, Integer> objectRemover,
+                                RegrowthScheduler regrowthScheduler) {
+        this.assetCache = assetCache;
+        this.objectAdder = objectAdder;
+        this.objectRemover = objectRemover;
+        this.regrowthScheduler = regrowthScheduler;
+    }
+
+    /**
+     * Creates the trees of the given layouts and adds them to the game.
+     * Trees that are already loaded are not created again.
+     *
+     * @param treeLayouts The layouts of the trees to load.
+     */
+    public void load(List<TreeLayout> treeLayouts) {
+        for (TreeLayout layout : treeLayouts) {
+            int treeX = (int) layout.getCoordinates().x();
+            if (!treesByX.containsKey(treeX)) {
+                Tree tree = new Tree(assetCache, layout);
+                treesByX.put(treeX, tree);
+                addTree(tree);
+            }
+        }
+    }
+
+    /**
+     * Removes all the trees in the given range from the game.
+     *
+     * @param minX The minimum x-coordinate of the range.
+     * @param maxX The maximum x-coordinate of the range.
+     */
+    public void unloadRange(int minX, int maxX) {
+        NavigableMap<Integer, Tree> treesInRange = treesByX.subMap(minX, true, maxX, true);
+        for (Tree tree : treesInRange.values()) {
+            removeTree(tree);
+        }
+        treesInRange.clear();
+    }
+
+    /**
+     * Returns the number of trees currently loaded.
+     *
+     * @return The number of loaded trees.
+     */
+    public int getLoadedTreeCount() {
+        return treesByX.size();
+    }
+
+    /**
+     * Adds the trunk, canopy and fruits of a tree to the game, and its fruits to the regrowth
+     * scheduler.
+     *
+     * @param tree The tree to add.
+     */
+    private void addTree(Tree tree) {
+        objectAdder.accept(tree.getTrunk(), Constants.TREES_TRUNKS_LAYER);
+        objectAdder.accept(tree.getCanopy(), Constants.TREE_LEAVES_LAYER);
+        for (Fruit fruit : tree.getFruits()) {
+            regrowthScheduler.register(fruit);
+            objectAdder.accept(fruit, Constants.FRUITS_LAYER);
+        }
+    }
+
+    /**
+     * Removes the trunk, canopy and fruits of a tree from the game, and its fruits from the
+     * regrowth scheduler.
+     *
+     * @param tree The tree to remove.
+     */
+    private void removeTree(Tree tree) {
+        objectRemover.accept(tree.getTrunk(), Constants.TREES_TRUNKS_LAYER);
+        objectRemover.accept(tree.getCanopy(), Constants.TREE_LEAVES_LAYER);
+        for (Fruit fruit : tree.getFruits()) {
+            objectRemover.accept(fruit, Constants.FRUITS_LAYER);
+            regrowthScheduler.unregister(fruit);
+        }
+    }
+}
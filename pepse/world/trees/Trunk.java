@@ -2,8 +2,8 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
-import danogl.gui.ImageReader;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
 import pepse.util.Constants;
 
 /**
@@ -16,16 +16,16 @@ public class Trunk extends GameObject {
      * Constructs a Trunk object with the specified coordinates, dimensions, and image.
      * The trunk is set to be immovable and prevents intersections with other objects.
      *
-     * @param imageReader An ImageReader instance used to load the image for the trunk.
+     * @param assetCache The asset cache used to load the image for the trunk.
      * @param coordinates The top-left corner coordinates of the trunk in the game world.
      * @param dimensions  The width and height dimensions of the trunk.
      */
-    public Trunk(ImageReader imageReader,
+    public Trunk(AssetCache assetCache,
                  Vector2 coordinates,
                  Vector2 dimensions) {
         super(coordinates,
                 dimensions,
-                imageReader.readImage(Constants.TRUNK_IMAGE_PATH, true));
+                assetCache.readImage(Constants.TRUNK_IMAGE_PATH, true));
         this.setTag(Constants.TRUNK);
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);